@@ -0,0 +1,164 @@
+package com.example.product.cache;
+
+import com.example.product.model.Product;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bounded LRU cache with a per-entry time-to-live. Products are stored once, by id;
+// the name index only maps a name to an id so evicting the id invalidates both lookups.
+// Entries are detached copies, so a caller changing a product it got never affects another.
+public class InMemoryProductCache implements ProductCache {
+
+  // Evictions are remembered per stripe of ids rather than per id, so the bookkeeping stays
+  // bounded; an eviction only ever drops puts for the ids sharing its stripe
+  private static final int EVICTION_STRIPES = 1024;
+
+  private final int maxSize;
+  private final long ttlMillis;
+  private final Clock clock;
+
+  private final Map<Long, Entry> entries;
+  private final Map<String, Long> idsByName = new ConcurrentHashMap<>();
+  private final AtomicLong invalidations = new AtomicLong();
+  private final long[] evictedAt = new long[EVICTION_STRIPES];
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  public InMemoryProductCache(int maxSize, Duration ttl, Clock clock) {
+    this.maxSize = maxSize;
+    this.ttlMillis = ttl.toMillis();
+    this.clock = clock;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+        if (size() > InMemoryProductCache.this.maxSize) {
+          idsByName.remove(eldest.getValue().product.getName(), eldest.getKey());
+          evictions.increment();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public Optional<Product> getById(long id) {
+    Product product = lookup(id);
+    if (product == null) {
+      misses.increment();
+      return Optional.empty();
+    }
+    hits.increment();
+    return Optional.of(copy(product));
+  }
+
+  @Override
+  public Optional<Product> getByName(String name) {
+    Long id = idsByName.get(name);
+    Product product = id == null ? null : lookup(id);
+    if (product == null || !product.getName().equals(name)) {
+      misses.increment();
+      return Optional.empty();
+    }
+    hits.increment();
+    return Optional.of(copy(product));
+  }
+
+  @Override
+  public long stamp() {
+    return invalidations.get();
+  }
+
+  @Override
+  public void put(Product product, long stamp) {
+    if (maxSize <= 0 || product.isDeleted()) {
+      return;
+    }
+    synchronized (entries) {
+      if (evictedAt[stripe(product.getId())] > stamp) {
+        return;
+      }
+      Entry previous = entries.put(product.getId(), new Entry(copy(product), clock.millis() + ttlMillis));
+      if (previous != null && !previous.product.getName().equals(product.getName())) {
+        idsByName.remove(previous.product.getName(), product.getId());
+      }
+      idsByName.put(product.getName(), product.getId());
+    }
+  }
+
+  @Override
+  public void evict(long id) {
+    synchronized (entries) {
+      evictedAt[stripe(id)] = invalidations.incrementAndGet();
+      Entry removed = entries.remove(id);
+      if (removed != null) {
+        idsByName.remove(removed.product.getName(), id);
+      }
+    }
+  }
+
+  @Override
+  public void clear() {
+    synchronized (entries) {
+      Arrays.fill(evictedAt, invalidations.incrementAndGet());
+      entries.clear();
+      idsByName.clear();
+    }
+  }
+
+  @Override
+  public ProductCacheStats stats() {
+    synchronized (entries) {
+      return new ProductCacheStats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+    }
+  }
+
+  private Product lookup(long id) {
+    synchronized (entries) {
+      Entry entry = entries.get(id);
+      if (entry == null) {
+        return null;
+      }
+      if (entry.expiresAt <= clock.millis()) {
+        entries.remove(id);
+        idsByName.remove(entry.product.getName(), id);
+        evictions.increment();
+        return null;
+      }
+      return entry.product;
+    }
+  }
+
+  private static int stripe(long id) {
+    return Long.hashCode(id) & (EVICTION_STRIPES - 1);
+  }
+
+  private static Product copy(Product product) {
+    Product copy = new Product(product.getId(), product.getName(), product.getPrice());
+    copy.setCreatedAt(product.getCreatedAt());
+    copy.setUpdatedAt(product.getUpdatedAt());
+    copy.setDeletedAt(product.getDeletedAt());
+    copy.setVersion(product.getVersion());
+    return copy;
+  }
+
+  private static class Entry {
+    private final Product product;
+    private final long expiresAt;
+
+    Entry(Product product, long expiresAt) {
+      this.product = product;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
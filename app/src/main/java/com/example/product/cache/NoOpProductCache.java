@@ -0,0 +1,45 @@
+package com.example.product.cache;
+
+import com.example.product.model.Product;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+public class NoOpProductCache implements ProductCache {
+
+  private final LongAdder misses = new LongAdder();
+
+  @Override
+  public Optional<Product> getById(long id) {
+    misses.increment();
+    return Optional.empty();
+  }
+
+  @Override
+  public Optional<Product> getByName(String name) {
+    misses.increment();
+    return Optional.empty();
+  }
+
+  @Override
+  public long stamp() {
+    return 0;
+  }
+
+  @Override
+  public void put(Product product, long stamp) {
+  }
+
+  @Override
+  public void evict(long id) {
+  }
+
+  @Override
+  public void clear() {
+  }
+
+  @Override
+  public ProductCacheStats stats() {
+    return new ProductCacheStats(0, misses.sum(), 0, 0);
+  }
+}
@@ -0,0 +1,25 @@
+package com.example.product.cache;
+
+import com.example.product.model.Product;
+
+import java.util.Optional;
+
+public interface ProductCache {
+
+  Optional<Product> getById(long id);
+
+  Optional<Product> getByName(String name);
+
+  // Taken before loading a product from the store. A put with a stamp older than the last
+  // eviction of that id is dropped: the loaded row may predate the write that evicted it.
+  long stamp();
+
+  void put(Product product, long stamp);
+
+  // Removing the id entry also invalidates any name lookup that resolves to it
+  void evict(long id);
+
+  void clear();
+
+  ProductCacheStats stats();
+}
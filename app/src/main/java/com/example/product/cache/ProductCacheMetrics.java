@@ -0,0 +1,35 @@
+package com.example.product.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+// Publishes the counters the cache already keeps. Values are read at scrape time,
+// so lookups pay nothing beyond the LongAdder increments they already do.
+public class ProductCacheMetrics implements MeterBinder {
+
+  private final ProductCache cache;
+
+  public ProductCacheMetrics(ProductCache cache) {
+    this.cache = cache;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("product.cache.gets", cache, c -> c.stats().getHits())
+        .tag("result", "hit")
+        .description("Product cache lookups that were served from the cache")
+        .register(registry);
+    FunctionCounter.builder("product.cache.gets", cache, c -> c.stats().getMisses())
+        .tag("result", "miss")
+        .description("Product cache lookups that fell through to the repository")
+        .register(registry);
+    FunctionCounter.builder("product.cache.evictions", cache, c -> c.stats().getEvictions())
+        .description("Entries dropped for size or expiry")
+        .register(registry);
+    Gauge.builder("product.cache.size", cache, c -> c.stats().getSize())
+        .description("Entries currently held")
+        .register(registry);
+  }
+}
@@ -0,0 +1,36 @@
+package com.example.product.cache;
+
+public class ProductCacheStats {
+  private final long hits;
+  private final long misses;
+  private final long evictions;
+  private final long size;
+
+  public ProductCacheStats(long hits, long misses, long evictions, long size) {
+    this.hits = hits;
+    this.misses = misses;
+    this.evictions = evictions;
+    this.size = size;
+  }
+
+  public long getHits() {
+    return hits;
+  }
+
+  public long getMisses() {
+    return misses;
+  }
+
+  public long getEvictions() {
+    return evictions;
+  }
+
+  public long getSize() {
+    return size;
+  }
+
+  public double getHitRate() {
+    long requests = hits + misses;
+    return requests == 0 ? 0.0 : (double) hits / requests;
+  }
+}
@@ -0,0 +1,128 @@
+package com.example.product.component;
+
+import com.example.product.model.Product;
+import com.example.product.model.ProductChange;
+import com.example.product.repository.ProductChangeRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In-memory outbox for the "inmemory" profile. Unpublished rows are kept by id and published ones
+// by seq, so both the relay's backlog scan and the change feed are ordered map walks. There is no
+// transaction to join and a single relay thread, so the relay lock is always granted.
+@Component
+@Profile("inmemory")
+public class ProductChangeComponent implements ProductChangeRepository {
+
+  private final ProductComponent productComponent;
+  private final ConcurrentNavigableMap<Long, ProductChange> pending = new ConcurrentSkipListMap<>();
+  private final ConcurrentNavigableMap<Long, ProductChange> published = new ConcurrentSkipListMap<>();
+  private final AtomicLong ids = new AtomicLong();
+
+  public ProductChangeComponent(ProductComponent productComponent) {
+    this.productComponent = productComponent;
+  }
+
+  @Override
+  public ProductChange save(ProductChange change) {
+    if (change.getId() == null) {
+      append(change);
+    } else if (change.getSeq() == null) {
+      pending.put(change.getId(), change);
+    } else {
+      published.put(change.getSeq(), change);
+      pending.remove(change.getId());
+    }
+    return change;
+  }
+
+  // Writers append after their write returns, so a later write to the same product can get here
+  // first. The id is taken under the product's write lock, and a snapshot the store has already
+  // moved past is brought up to the current row, so a product's last change is always its latest
+  // state, as the row lock held until commit guarantees for the database outbox.
+  private void append(ProductChange change) {
+    synchronized (productComponent.lockFor(change.getProductId())) {
+      Product current = productComponent.findById(change.getProductId()).orElse(null);
+      if (current == null) {
+        change.setType(ProductChange.Type.DELETED);
+      } else if (change.getVersion() == null || current.getVersion() > change.getVersion()) {
+        change.setName(current.getName());
+        change.setPrice(current.getPrice());
+        change.setVersion(current.getVersion());
+        if (current.isDeleted()) {
+          change.setType(ProductChange.Type.DELETED);
+        }
+      }
+      change.setId(ids.incrementAndGet());
+      pending.put(change.getId(), change);
+    }
+  }
+
+  @Override
+  public <S extends ProductChange> List<S> saveAll(Iterable<S> changes) {
+    List<S> saved = new ArrayList<>();
+    for (S change : changes) {
+      save(change);
+      saved.add(change);
+    }
+    return saved;
+  }
+
+  @Override
+  public int appendSnapshots(String type, Collection<Long> ids, LocalDateTime now) {
+    // Soft-deleted rows included, like the INSERT ... SELECT it stands in for
+    List<Product> products = ids.stream().sorted().distinct()
+        .flatMap(id -> productComponent.findById(id.longValue()).stream())
+        .toList();
+    for (Product product : products) {
+      save(new ProductChange(ProductChange.Type.valueOf(type), product, now));
+    }
+    return products.size();
+  }
+
+  @Override
+  public List<ProductChange> findBySeqIsNullOrderByIdAsc(Limit limit) {
+    return pending.values().stream().limit(limit.max()).toList();
+  }
+
+  @Override
+  public List<ProductChange> findBySeqGreaterThanOrderBySeqAsc(long seq, Limit limit) {
+    return published.tailMap(seq, false).values().stream().limit(limit.max()).toList();
+  }
+
+  @Override
+  public Long findMaxSeq() {
+    return published.isEmpty() ? null : published.lastKey();
+  }
+
+  @Override
+  public Long findMinSeq() {
+    return published.isEmpty() ? null : published.firstKey();
+  }
+
+  @Override
+  public boolean tryLockRelay(long key) {
+    return true;
+  }
+
+  @Override
+  public int prunePublishedBefore(LocalDateTime cutoff, int batchSize) {
+    int pruned = 0;
+    for (ProductChange change : published.values()) {
+      if (pruned == batchSize || published.size() == 1 || !change.getPublishedAt().isBefore(cutoff)) {
+        break;
+      }
+      published.remove(change.getSeq());
+      pruned++;
+    }
+    return pruned;
+  }
+}
@@ -1,37 +1,491 @@
 package com.example.product.component;
 
 import com.example.product.model.Product;
+import com.example.product.repository.ProductRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+// In-memory ProductRepository for the "inmemory" profile. Products are kept in a
+// concurrent skip list ordered by id, so reads never lock and keyset pages are a tailMap
+// walk. Callers always get copies, like detached entities, so nothing changes until save().
+// Writes to one id are serialised on a lock stripe, which keeps the name index in step with the
+// rows; lookups never take it.
 @Component
-public class ProductComponent {
+@Profile("inmemory")
+public class ProductComponent implements ProductRepository {
 
-  private final List<Product> productList = new ArrayList<>();
+  private static final int LOCK_STRIPES = 64;
+
+  private static final Comparator<Product> BY_LOWER_NAME = Comparator
+      .comparing((Product product) -> product.getName().toLowerCase(Locale.ROOT))
+      .thenComparingLong(Product::getId);
+
+  private final ConcurrentNavigableMap<Long, Product> products = new ConcurrentSkipListMap<>();
+  private final ConcurrentMap<String, Long> idsByName = new ConcurrentHashMap<>();
+  private final AtomicLong sequence = new AtomicLong();
+  private final Object[] locks = new Object[LOCK_STRIPES];
 
   public ProductComponent() {
-    productList.add(new Product(1, "Laptop", 1500.00));
-    productList.add(new Product(2, "Smartphone", 800.00));
-    productList.add(new Product(3, "Tablet", 500.00));
+    Arrays.setAll(locks, i -> new Object());
+    save(new Product(0, "Laptop", 1500.00));
+    save(new Product(0, "Smartphone", 800.00));
+    save(new Product(0, "Tablet", 500.00));
   }
 
   public List<Product> getProducts() {
-    return productList;
+    return findByDeletedAtIsNull();
   }
 
   public void addProduct(Product product) {
-    productList.add(product);
+    save(product);
   }
 
   public Optional<Product> findById(long id) {
-    return productList.stream().filter(p -> p.getId() == id).findFirst();
+    return Optional.ofNullable(products.get(id)).map(ProductComponent::copy);
+  }
+
+  // The entity finders below hide soft-deleted rows, as @SQLRestriction does for the JPA repository
+  @Override
+  public Optional<Product> findById(Long id) {
+    return findByIdAndDeletedAtIsNull(id);
+  }
+
+  // The index can briefly point at a product that is being renamed away from the name
+  @Override
+  public Optional<Product> findByName(String name) {
+    Long id = idsByName.get(name);
+    return id == null ? Optional.empty()
+        : findByIdAndDeletedAtIsNull(id).filter(product -> product.getName().equals(name));
+  }
+
+  @Override
+  public Optional<Product> findByIdAndDeletedAtIsNull(long id) {
+    return findById(id).filter(product -> !product.isDeleted());
   }
 
-  public Product save(Product product) {
-    productList.add(product);
+  @Override
+  public List<Product> findByDeletedAtIsNull() {
+    return live(products.values().stream()).toList();
+  }
+
+  @Override
+  public List<Product> findByDeletedAtIsNullAndIdGreaterThanAndNameStartingWithAndPriceBetweenOrderByIdAsc(
+      long afterId, String namePrefix, double minPrice, double maxPrice, Limit limit) {
+    Stream<Product> page = live(products.tailMap(afterId, false).values().stream())
+        .filter(product -> product.getName().startsWith(namePrefix))
+        .filter(product -> product.getPrice() >= minPrice && product.getPrice() <= maxPrice);
+    return (limit.isLimited() ? page.limit(limit.max()) : page).toList();
+  }
+
+  @Override
+  public Stream<Product> streamAllLive() {
+    return live(products.values().stream());
+  }
+
+  @Override
+  public List<Product> searchByNamePrefix(String pattern, int limit) {
+    return searchByName(likeRegex(pattern), BY_LOWER_NAME, limit);
+  }
+
+  @Override
+  public List<Product> searchByNameSubstring(String pattern, int limit) {
+    return searchByName(likeRegex(pattern),
+        Comparator.comparingInt((Product product) -> product.getName().length()).thenComparing(BY_LOWER_NAME), limit);
+  }
+
+  // Every query word has to appear in the name; names made mostly of query words rank first
+  @Override
+  public List<Product> searchByNameFullText(String query, int limit) {
+    Set<String> terms = Set.copyOf(words(query));
+    if (terms.isEmpty()) {
+      return List.of();
+    }
+    return live(products.values().stream())
+        .filter(product -> words(product.getName()).containsAll(terms))
+        .sorted(Comparator.comparingDouble((Product product) -> -(double) terms.size() / words(product.getName()).size())
+            .thenComparingLong(Product::getId))
+        .limit(limit)
+        .toList();
+  }
+
+  @Override
+  public Optional<Product> updateLive(long id, Long version, String name, double price, LocalDateTime now) {
+    return updateLive(id, version, name, price, false);
+  }
+
+  @Override
+  public Optional<Product> patchPrice(long id, Long version, double price, LocalDateTime now) {
+    return updateLive(id, version, null, price, true);
+  }
+
+  @Override
+  public Optional<Product> patchLive(long id, Long version, String name, Double price, LocalDateTime now) {
+    return updateLive(id, version, name, price, true);
+  }
+
+  @Override
+  public int[] updatePrices(long[] ids, double[] prices, LocalDateTime now) {
+    int[] counts = new int[ids.length];
+    for (int i = 0; i < ids.length; i++) {
+      counts[i] = patchPrice(ids[i], null, prices[i], now).isPresent() ? 1 : 0;
+    }
+    return counts;
+  }
+
+  // A null name or price keeps the stored one
+  private Optional<Product> updateLive(long id, Long version, String name, Double price, boolean onlyIfChanged) {
+    synchronized (lockFor(id)) {
+      Product current = products.get(id);
+      if (current == null || current.isDeleted() || (version != null && !version.equals(current.getVersion()))) {
+        return Optional.empty();
+      }
+      Product next = copy(current);
+      if (name != null) {
+        next.setName(name);
+      }
+      if (price != null) {
+        next.setPrice(price);
+      }
+      if (onlyIfChanged && next.getName().equals(current.getName()) && next.getPrice() == current.getPrice()) {
+        return Optional.empty();
+      }
+      update(next);
+      return Optional.of(next);
+    }
+  }
+
+  @Override
+  public int purgeDeletedBefore(LocalDateTime cutoff, int batchSize) {
+    List<Long> expired = products.values().stream()
+        .filter(product -> product.isDeleted() && product.getDeletedAt().isBefore(cutoff))
+        .limit(batchSize)
+        .map(Product::getId)
+        .toList();
+    expired.forEach(this::hardDeleteById);
+    return expired.size();
+  }
+
+  @Override
+  public <S extends Product> S save(S product) {
+    if (product.getId() == 0) {
+      insert(product);
+    } else {
+      update(product);
+    }
     return product;
   }
-}
\ No newline at end of file
+
+  @Override
+  public <S extends Product> List<S> saveAll(Iterable<S> entities) {
+    List<S> batch = new ArrayList<>();
+    entities.forEach(batch::add);
+
+    // Check the whole batch up front so a duplicate name does not leave it half applied
+    Set<String> names = new HashSet<>();
+    for (S product : batch) {
+      Long owner = idsByName.get(product.getName());
+      if (!names.add(product.getName()) || (owner != null && owner != product.getId())) {
+        throw duplicateName(product.getName());
+      }
+    }
+    batch.forEach(this::save);
+    return batch;
+  }
+
+  @Override
+  public <S extends Product> S saveAndFlush(S entity) {
+    return save(entity);
+  }
+
+  @Override
+  public <S extends Product> List<S> saveAllAndFlush(Iterable<S> entities) {
+    return saveAll(entities);
+  }
+
+  @Override
+  public void flush() {
+  }
+
+  @Override
+  public boolean existsById(Long id) {
+    return products.containsKey(id);
+  }
+
+  @Override
+  public List<Product> findAll() {
+    return products.values().stream().map(ProductComponent::copy).toList();
+  }
+
+  @Override
+  public List<Product> findAllById(Iterable<Long> ids) {
+    return live(StreamSupport.stream(ids.spliterator(), false)
+        .map(products::get)
+        .filter(product -> product != null))
+        .toList();
+  }
+
+  @Override
+  public List<Product> findAll(Sort sort) {
+    return products.values().stream().sorted(comparator(sort)).map(ProductComponent::copy).toList();
+  }
+
+  @Override
+  public Page<Product> findAll(Pageable pageable) {
+    List<Product> sorted = findAll(pageable.getSortOr(Sort.by("id")));
+    if (pageable.isUnpaged()) {
+      return new PageImpl<>(sorted);
+    }
+    int from = (int) Math.min(pageable.getOffset(), sorted.size());
+    int to = Math.min(from + pageable.getPageSize(), sorted.size());
+    return new PageImpl<>(sorted.subList(from, to), pageable, sorted.size());
+  }
+
+  @Override
+  public long count() {
+    return products.size();
+  }
+
+  @Override
+  public int hardDeleteById(long id) {
+    synchronized (lockFor(id)) {
+      Product removed = products.remove(id);
+      if (removed == null) {
+        return 0;
+      }
+      idsByName.remove(removed.getName(), id);
+      return 1;
+    }
+  }
+
+  @Override
+  public void deleteById(Long id) {
+    hardDeleteById(id);
+  }
+
+  @Override
+  public void delete(Product entity) {
+    deleteById(entity.getId());
+  }
+
+  @Override
+  public void deleteAllById(Iterable<? extends Long> ids) {
+    ids.forEach(this::deleteById);
+  }
+
+  @Override
+  public void deleteAll(Iterable<? extends Product> entities) {
+    entities.forEach(this::delete);
+  }
+
+  @Override
+  public void deleteAll() {
+    products.clear();
+    idsByName.clear();
+  }
+
+  @Override
+  public void deleteAllInBatch(Iterable<Product> entities) {
+    deleteAll(entities);
+  }
+
+  @Override
+  public void deleteAllByIdInBatch(Iterable<Long> ids) {
+    deleteAllById(ids);
+  }
+
+  @Override
+  public void deleteAllInBatch() {
+    deleteAll();
+  }
+
+  @Override
+  @Deprecated
+  public Product getOne(Long id) {
+    return getReferenceById(id);
+  }
+
+  @Override
+  @Deprecated
+  public Product getById(Long id) {
+    return getReferenceById(id);
+  }
+
+  @Override
+  public Product getReferenceById(Long id) {
+    return findById(id).orElseThrow(() -> new EmptyResultDataAccessException("No product with id " + id, 1));
+  }
+
+  @Override
+  public <S extends Product> Optional<S> findOne(Example<S> example) {
+    throw queryByExampleNotSupported();
+  }
+
+  @Override
+  public <S extends Product> List<S> findAll(Example<S> example) {
+    throw queryByExampleNotSupported();
+  }
+
+  @Override
+  public <S extends Product> List<S> findAll(Example<S> example, Sort sort) {
+    throw queryByExampleNotSupported();
+  }
+
+  @Override
+  public <S extends Product> Page<S> findAll(Example<S> example, Pageable pageable) {
+    throw queryByExampleNotSupported();
+  }
+
+  @Override
+  public <S extends Product> long count(Example<S> example) {
+    throw queryByExampleNotSupported();
+  }
+
+  @Override
+  public <S extends Product> boolean exists(Example<S> example) {
+    throw queryByExampleNotSupported();
+  }
+
+  @Override
+  public <S extends Product, R> R findBy(Example<S> example,
+      Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+    throw queryByExampleNotSupported();
+  }
+
+  private void insert(Product product) {
+    long id = sequence.incrementAndGet();
+    if (idsByName.putIfAbsent(product.getName(), id) != null) {
+      throw duplicateName(product.getName());
+    }
+    LocalDateTime now = LocalDateTime.now();
+    product.setId(id);
+    product.setVersion(0L);
+    product.setCreatedAt(now);
+    product.setUpdatedAt(now);
+    products.put(id, copy(product));
+  }
+
+  // The new name is claimed before the row is swapped in, so a rename to a taken name fails with
+  // nothing changed; the old name is only released once the renamed row is visible
+  private void update(Product product) {
+    long id = product.getId();
+    synchronized (lockFor(id)) {
+      Product current = products.get(id);
+      if (current != null && product.getVersion() != null && !product.getVersion().equals(current.getVersion())) {
+        throw new ObjectOptimisticLockingFailureException(Product.class, id);
+      }
+      boolean renamed = current == null || !current.getName().equals(product.getName());
+      if (renamed && idsByName.putIfAbsent(product.getName(), id) != null) {
+        throw duplicateName(product.getName());
+      }
+      product.setCreatedAt(current == null ? LocalDateTime.now() : current.getCreatedAt());
+      product.setUpdatedAt(LocalDateTime.now());
+      product.setVersion(current == null ? 0L : current.getVersion() + 1);
+      products.put(id, copy(product));
+      if (renamed && current != null) {
+        idsByName.remove(current.getName(), id);
+      }
+    }
+    sequence.accumulateAndGet(id, Math::max);
+  }
+
+  // Held by every write to the id, and by the outbox while it numbers a change to it
+  Object lockFor(long id) {
+    return locks[Long.hashCode(id) & (LOCK_STRIPES - 1)];
+  }
+
+  private List<Product> searchByName(Pattern pattern, Comparator<Product> order, int limit) {
+    return live(products.values().stream())
+        .filter(product -> pattern.matcher(product.getName().toLowerCase(Locale.ROOT)).matches())
+        .sorted(order)
+        .limit(limit)
+        .toList();
+  }
+
+  // Translates a LIKE pattern with backslash escapes into an equivalent regex
+  private static Pattern likeRegex(String like) {
+    StringBuilder regex = new StringBuilder();
+    for (int i = 0; i < like.length(); i++) {
+      char c = like.charAt(i);
+      if (c == '\\' && i + 1 < like.length()) {
+        regex.append(Pattern.quote(String.valueOf(like.charAt(++i))));
+      } else if (c == '%') {
+        regex.append(".*");
+      } else if (c == '_') {
+        regex.append('.');
+      } else {
+        regex.append(Pattern.quote(String.valueOf(c)));
+      }
+    }
+    return Pattern.compile(regex.toString(), Pattern.DOTALL);
+  }
+
+  private static List<String> words(String text) {
+    return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+        .filter(word -> !word.isEmpty())
+        .toList();
+  }
+
+  private static Stream<Product> live(Stream<Product> products) {
+    return products.filter(product -> !product.isDeleted()).map(ProductComponent::copy);
+  }
+
+  private static Comparator<Product> comparator(Sort sort) {
+    Comparator<Product> comparator = (a, b) -> 0;
+    for (Sort.Order order : sort) {
+      Comparator<Product> byProperty = switch (order.getProperty()) {
+        case "id" -> Comparator.comparingLong(Product::getId);
+        case "name" -> Comparator.comparing(Product::getName);
+        case "price" -> Comparator.comparingDouble(Product::getPrice);
+        default -> throw new UnsupportedOperationException("Cannot sort by " + order.getProperty());
+      };
+      comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+    }
+    return comparator.thenComparingLong(Product::getId);
+  }
+
+  private static Product copy(Product product) {
+    Product copy = new Product(product.getId(), product.getName(), product.getPrice());
+    copy.setCreatedAt(product.getCreatedAt());
+    copy.setUpdatedAt(product.getUpdatedAt());
+    copy.setDeletedAt(product.getDeletedAt());
+    copy.setVersion(product.getVersion());
+    return copy;
+  }
+
+  private static DataIntegrityViolationException duplicateName(String name) {
+    return new DataIntegrityViolationException("duplicate key value violates unique constraint: name " + name);
+  }
+
+  private static UnsupportedOperationException queryByExampleNotSupported() {
+    return new UnsupportedOperationException("Query by example is not supported by the in-memory product store");
+  }
+}
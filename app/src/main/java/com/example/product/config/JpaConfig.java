@@ -0,0 +1,15 @@
+package com.example.product.config;
+
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+// The "inmemory" profile swaps ProductRepository for ProductComponent and runs without a database;
+// the "reactive" profile serves the API from ReactiveProductController over R2DBC instead
+@Configuration
+@Profile("!inmemory & !reactive")
+@EnableJpaRepositories("com.example.product.repository")
+@EntityScan("com.example.product.model")
+public class JpaConfig {
+}
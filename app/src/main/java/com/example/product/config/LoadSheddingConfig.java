@@ -0,0 +1,48 @@
+package com.example.product.config;
+
+import com.example.product.limit.AdaptiveConcurrencyLimiter;
+import com.example.product.limit.LoadSheddingInterceptor;
+import com.example.product.limit.TokenBucketRateLimiter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "product.limit.enabled", havingValue = "true", matchIfMissing = true)
+public class LoadSheddingConfig {
+
+  @Bean
+  public LoadSheddingInterceptor loadSheddingInterceptor(
+      @Value("${product.limit.rate:100}") double rate,
+      @Value("${product.limit.burst:200}") int burst,
+      @Value("${product.limit.concurrency.initial:20}") int initialLimit,
+      @Value("${product.limit.concurrency.min:4}") int minLimit,
+      @Value("${product.limit.concurrency.max:200}") int maxLimit,
+      @Value("${product.limit.concurrency.tolerance:2.0}") double tolerance,
+      @Value("${product.limit.concurrency.window:PT0.5S}") Duration window,
+      @Value("${product.limit.streams.max:4}") int maxStreams) {
+    // Fails on bad settings at startup rather than on the first request
+    new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, tolerance, window.toNanos());
+    return new LoadSheddingInterceptor(new TokenBucketRateLimiter(rate, burst),
+        endpoint -> new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, tolerance, window.toNanos()),
+        maxStreams);
+  }
+
+  @Bean
+  public WebMvcConfigurer loadSheddingWebMvcConfigurer(LoadSheddingInterceptor loadSheddingInterceptor) {
+    return new WebMvcConfigurer() {
+      @Override
+      public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(loadSheddingInterceptor).addPathPatterns("/api/products/**");
+      }
+    };
+  }
+}
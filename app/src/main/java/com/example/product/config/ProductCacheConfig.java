@@ -0,0 +1,36 @@
+package com.example.product.config;
+
+import com.example.product.cache.InMemoryProductCache;
+import com.example.product.cache.NoOpProductCache;
+import com.example.product.cache.ProductCache;
+import com.example.product.cache.ProductCacheMetrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.time.Duration;
+
+@Configuration
+public class ProductCacheConfig {
+
+  @Bean
+  public ProductCache productCache(@Value("${product.cache.type:memory}") String type,
+      @Value("${product.cache.max-size:10000}") int maxSize,
+      @Value("${product.cache.ttl:PT5M}") Duration ttl) {
+    switch (type) {
+      case "memory":
+        return new InMemoryProductCache(maxSize, ttl, Clock.systemUTC());
+      case "none":
+        return new NoOpProductCache();
+      default:
+        throw new IllegalArgumentException("Unknown product.cache.type " + type);
+    }
+  }
+
+  @Bean
+  public ProductCacheMetrics productCacheMetrics(ProductCache productCache) {
+    return new ProductCacheMetrics(productCache);
+  }
+}
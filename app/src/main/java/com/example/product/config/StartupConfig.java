@@ -0,0 +1,19 @@
+package com.example.product.config;
+
+import com.example.product.ingest.ProductIngestService;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// With spring.main.lazy-initialization=true (the "faststart" profile) a bean is only created when
+// first used. Boot already keeps beans with @Scheduled methods eager, so the purge job, the outbox
+// relay and the other scheduled work run regardless. The ingest service has no schedule but must
+// start anyway: it replays its log on startup.
+@Configuration
+public class StartupConfig {
+
+  @Bean
+  static LazyInitializationExcludeFilter eagerBackgroundServices() {
+    return LazyInitializationExcludeFilter.forBeanTypes(ProductIngestService.class);
+  }
+}
@@ -1,21 +1,53 @@
 package com.example.product.controller;
 
+import com.example.product.dto.ProductPage;
 import com.example.product.service.ProductService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
 
 @Controller
+@Profile("!reactive")
 public class PageController {
   private final ProductService productService;
+  private final ProductRowFragments rowFragments;
+  private final String cacheControl;
 
-  public PageController(ProductService productService) {
+  public PageController(ProductService productService, ProductRowFragments rowFragments,
+      @Value("${product.page.max-age:PT10S}") Duration maxAge) {
     this.productService = productService;
+    this.rowFragments = rowFragments;
+    this.cacheControl = CacheControl.maxAge(maxAge).cachePublic().getHeaderValue();
   }
 
+  // One keyset page at a time. Browsers and proxies may reuse the page for max-age and then
+  // revalidate with If-None-Match; the ETag moves with any write to the catalog.
   @GetMapping("/")
-  public String showProducts(Model model) {
-    model.addAttribute("products", productService.getAllProducts());
+  public String showProducts(@RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "" + ProductService.DEFAULT_PAGE_SIZE) int size,
+      Model model, WebRequest request, HttpServletResponse response) {
+    try {
+      ProductPage.decodeCursor(cursor);
+    } catch (IllegalArgumentException e) {
+      return "redirect:/";
+    }
+    response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+    if (request.checkNotModified(ProductETags.ofList(productService.getCatalogSeq(), "page", cursor, size))) {
+      return null;
+    }
+    ProductPage page = productService.getProductPage(cursor, size, null, null, null);
+    model.addAttribute("rows", rowFragments.render(page.getProducts()));
+    model.addAttribute("next", page.getNext());
+    model.addAttribute("size", size);
     return "product"; // Refers to product.html in templates/
   }
 
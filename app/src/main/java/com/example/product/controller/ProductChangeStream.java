@@ -0,0 +1,294 @@
+package com.example.product.controller;
+
+import com.example.product.model.ProductChange;
+import com.example.product.service.ProductChangeFeed;
+import com.example.product.service.ProductChangesExpiredException;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+// Pushes published product changes to Server-Sent Events subscribers. An idle subscriber is an
+// async request and a few small objects; no thread is held for it. Each subscriber buffers at most
+// buffer-size products: a newer change to a product replaces the pending one, and the buffer drains
+// in seq order so Last-Event-ID stays a safe resume point. Drains run on virtual threads, one at a
+// time per subscriber, so a client that reads slowly only parks its own drain. A subscriber whose
+// buffer overflows is closed and can reconnect with Last-Event-ID to catch up from the outbox.
+@Component
+@Profile("!reactive")
+public class ProductChangeStream implements MeterBinder {
+
+    static final String EVENT_NAME = "change";
+
+    private final ProductChangeFeed changeFeed;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final long heartbeatNanos;
+    private final int maxSubscribers;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService drains = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("product-sse-", 0).factory());
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder conflated = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    public ProductChangeStream(ProductChangeFeed changeFeed,
+            @Value("${product.changes.stream.buffer-size:256}") int bufferSize,
+            @Value("${product.changes.stream.timeout:PT30M}") Duration timeout,
+            @Value("${product.changes.stream.heartbeat:PT15S}") Duration heartbeat,
+            @Value("${product.changes.stream.max-subscribers:20000}") int maxSubscribers) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("product.changes.stream.buffer-size must be positive");
+        }
+        this.changeFeed = changeFeed;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+        this.heartbeatNanos = heartbeat.toNanos();
+        this.maxSubscribers = maxSubscribers;
+        changeFeed.addListener(this::publish);
+    }
+
+    // Replays what the subscriber missed after since (null: start from now), then follows live.
+    // The subscriber is registered before the replay so nothing published meanwhile is lost, and
+    // it is not drained until the replay is in its buffer, so events still go out in seq order.
+    public SseEmitter subscribe(Long since, Set<Long> productIds) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new RejectedExecutionException("Too many change stream subscribers");
+        }
+        Subscriber subscriber = new Subscriber(new SseEmitter(timeoutMillis), productIds);
+        subscribers.add(subscriber);
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onError(e -> subscribers.remove(subscriber));
+        try {
+            if (since != null) {
+                replay(subscriber, since);
+            }
+        } catch (RuntimeException e) {
+            subscribers.remove(subscriber);
+            throw e;
+        }
+        subscriber.ready();
+        schedule(subscriber);
+        return subscriber.emitter;
+    }
+
+    private void replay(Subscriber subscriber, long since) {
+        long from = since;
+        List<ProductChange> page;
+        do {
+            page = changeFeed.changesAfter(from, ProductChangeFeed.MAX_LIMIT, Duration.ZERO).join();
+            for (ProductChange change : page) {
+                if (!subscriber.offer(change)) {
+                    throw new ProductChangesExpiredException("More than " + bufferSize + " products changed after "
+                            + since + "; reload the catalog and resume from a current seq");
+                }
+            }
+            if (!page.isEmpty()) {
+                from = page.get(page.size() - 1).getSeq();
+            }
+        } while (page.size() == ProductChangeFeed.MAX_LIMIT);
+    }
+
+    // Runs on the relay thread: only buffers and hands full subscribers their drain
+    void publish(List<ProductChange> batch) {
+        for (Subscriber subscriber : subscribers) {
+            boolean fits = true;
+            for (ProductChange change : batch) {
+                fits = subscriber.offer(change);
+                if (!fits) {
+                    break;
+                }
+            }
+            if (!fits) {
+                subscribers.remove(subscriber);
+                subscriber.close();
+                evicted.increment();
+            }
+            schedule(subscriber);
+        }
+    }
+
+    // Keeps idle connections from being dropped by proxies and finds the ones that are gone
+    @Scheduled(fixedDelayString = "${product.changes.stream.heartbeat:PT15S}")
+    public void heartbeat() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.heartbeatDue(now, heartbeatNanos)) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    int subscribers() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("product.changes.stream.subscribers", subscribers, Set::size)
+                .description("Open product change streams")
+                .register(registry);
+        FunctionCounter.builder("product.changes.stream.sent", sent, LongAdder::sum)
+                .description("Change events written to subscribers")
+                .register(registry);
+        FunctionCounter.builder("product.changes.stream.conflated", conflated, LongAdder::sum)
+                .description("Pending changes replaced by a newer change to the same product")
+                .register(registry);
+        FunctionCounter.builder("product.changes.stream.evicted", evicted, LongAdder::sum)
+                .description("Subscribers closed because their buffer overflowed")
+                .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        drains.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.startDrain()) {
+            drains.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        List<ProductChange> batch;
+        while ((batch = subscriber.take()) != null) {
+            try {
+                if (subscriber.closing()) {
+                    subscriber.emitter.complete();
+                    return;
+                }
+                if (batch.isEmpty()) {
+                    subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+                for (ProductChange change : batch) {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(String.valueOf(change.getSeq()))
+                            .name(EVENT_NAME)
+                            .data(change, MediaType.APPLICATION_JSON));
+                    sent.increment();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away or the emitter already completed
+                subscribers.remove(subscriber);
+                subscriber.close();
+                subscriber.emitter.completeWithError(e);
+                return;
+            }
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<Long> productIds;
+        // Pending changes in seq order, at most one per product
+        private final TreeMap<Long, ProductChange> pending = new TreeMap<>();
+        private final Map<Long, Long> pendingSeqByProduct = new HashMap<>();
+        private long lastSeq = -1;
+        private long lastWriteNanos = System.nanoTime();
+        private boolean ready;
+        private boolean draining;
+        private boolean heartbeat;
+        private boolean closed;
+
+        private Subscriber(SseEmitter emitter, Set<Long> productIds) {
+            this.emitter = emitter;
+            this.productIds = productIds == null ? Set.of() : productIds;
+        }
+
+        // False when the change did not fit; the caller closes the subscriber
+        synchronized boolean offer(ProductChange change) {
+            if (closed || change.getSeq() <= lastSeq
+                    || (!productIds.isEmpty() && !productIds.contains(change.getProductId()))) {
+                return true;
+            }
+            Long pendingSeq = pendingSeqByProduct.put(change.getProductId(), change.getSeq());
+            if (pendingSeq != null) {
+                if (pendingSeq >= change.getSeq()) {
+                    pendingSeqByProduct.put(change.getProductId(), pendingSeq);
+                    return true;
+                }
+                pending.remove(pendingSeq);
+                conflated.increment();
+            }
+            pending.put(change.getSeq(), change);
+            return pending.size() <= bufferSize;
+        }
+
+        synchronized void ready() {
+            ready = true;
+        }
+
+        synchronized void close() {
+            closed = true;
+            pending.clear();
+            pendingSeqByProduct.clear();
+        }
+
+        synchronized boolean closing() {
+            return closed;
+        }
+
+        synchronized boolean heartbeatDue(long now, long interval) {
+            if (draining || closed || now - lastWriteNanos < interval) {
+                return false;
+            }
+            heartbeat = true;
+            return true;
+        }
+
+        synchronized boolean startDrain() {
+            if (draining || (!closed && (!ready || (pending.isEmpty() && !heartbeat)))) {
+                return false;
+            }
+            draining = true;
+            return true;
+        }
+
+        // The next batch to write, empty for a heartbeat, or null once there is nothing left to do
+        synchronized List<ProductChange> take() {
+            if (closed) {
+                return List.of();
+            }
+            if (pending.isEmpty() && !heartbeat) {
+                draining = false;
+                return null;
+            }
+            List<ProductChange> batch = new ArrayList<>(pending.values());
+            if (!batch.isEmpty()) {
+                lastSeq = pending.lastKey();
+            }
+            pending.clear();
+            pendingSeqByProduct.clear();
+            heartbeat = false;
+            lastWriteNanos = System.nanoTime();
+            return batch;
+        }
+    }
+}
@@ -2,41 +2,231 @@ package com.example.product.controller;
 
 import com.example.product.dto.ApiResponse;
 import com.example.product.dto.ApiErrorResponse;
+import com.example.product.dto.BulkItemResult;
+import com.example.product.dto.IngestStatus;
+import com.example.product.dto.PriceFeedResult;
+import com.example.product.dto.ProductPage;
+import com.example.product.dto.ProductPatch;
+import com.example.product.dto.ProductUpdate;
+import com.example.product.dto.SearchMode;
+import com.example.product.ingest.ProductIngestService;
+import com.example.product.limit.RequestRejectedException;
 import com.example.product.model.Product;
+import com.example.product.model.ProductChange;
+import com.example.product.service.BulkWriteInterruptedException;
+import com.example.product.service.ProductBulkService;
+import com.example.product.service.ProductChangeFeed;
+import com.example.product.service.ProductChangesExpiredException;
+import com.example.product.service.ProductExportService;
+import com.example.product.service.ProductNotFoundException;
+import com.example.product.service.ProductPriceFeedService;
 import com.example.product.service.ProductService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import com.fasterxml.jackson.databind.JsonNode;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/products")
 @Tag(name = "Product Controller", description = "Manage product operations")
 public class ProductController {
     private final ProductService productService;
+    private final ProductExportService productExportService;
+    private final ProductBulkService productBulkService;
+    private final ProductIngestService productIngestService;
+    private final ProductPriceFeedService productPriceFeedService;
+    private final ProductChangeFeed productChangeFeed;
+    private final ProductChangeStream productChangeStream;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductExportService productExportService,
+            ProductBulkService productBulkService, ProductIngestService productIngestService,
+            ProductPriceFeedService productPriceFeedService, ProductChangeFeed productChangeFeed,
+            ProductChangeStream productChangeStream) {
         this.productService = productService;
+        this.productExportService = productExportService;
+        this.productBulkService = productBulkService;
+        this.productIngestService = productIngestService;
+        this.productPriceFeedService = productPriceFeedService;
+        this.productChangeFeed = productChangeFeed;
+        this.productChangeStream = productChangeStream;
     }
 
     @GetMapping
-    @Operation(summary = "Get all products", description = "Retrieve all available products")
-    public ResponseEntity<ApiResponse<List<Product>>> getAllProducts() {
-        List<Product> products = productService.getAllProducts();
-        return ResponseEntity.status(HttpStatus.OK).body(new ApiResponse<>(HttpStatus.OK, "Success", products, null));
+    @Operation(summary = "Get all products", description = "Retrieve available products one page at a time, ordered by id")
+    public ResponseEntity<ApiResponse<List<Product>>> getAllProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ProductService.DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            WebRequest request) {
+        ProductPage page;
+        try {
+            ProductPage.decodeCursor(cursor);
+            long catalogSeq = productService.getCatalogSeq();
+            if (request.checkNotModified(ProductETags.ofList(catalogSeq, cursor, size, name, minPrice, maxPrice))) {
+                return null;
+            }
+            page = productService.getProductPage(cursor, size, name, minPrice, maxPrice);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(HttpStatus.BAD_REQUEST, "Bad Request", null,
+                            new ApiErrorResponse("bad_request", "Bad Request", e.getMessage(),
+                                    HttpStatus.BAD_REQUEST)));
+        }
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(new ApiResponse<>(HttpStatus.OK, "Success", page.getProducts(), null, page.getNext()));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search products", description = "Find available products by name: prefix, substring or ranked full-text match")
+    public ResponseEntity<ApiResponse<List<Product>>> searchProducts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "prefix") String mode,
+            @RequestParam(defaultValue = "" + ProductService.DEFAULT_SEARCH_LIMIT) int limit) {
+        try {
+            List<Product> products = productService.search(q, SearchMode.parse(mode), limit);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(new ApiResponse<>(HttpStatus.OK, "Success", products, null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(HttpStatus.BAD_REQUEST, "Bad Request", null,
+                            new ApiErrorResponse("bad_request", "Bad Request", e.getMessage(),
+                                    HttpStatus.BAD_REQUEST)));
+        }
+    }
+
+    // Without since, answers with no changes and the current seq in next: take that, load the catalog,
+    // then follow from it. Each response's next is the since for the following request.
+    @GetMapping("/changes")
+    @Operation(summary = "Get product changes", description = "Changes published after seq `since`, oldest first; with `wait` seconds the request is held until there is one")
+    public CompletableFuture<ResponseEntity<ApiResponse<List<ProductChange>>>> getChanges(
+            @RequestParam(required = false) Long since,
+            @RequestParam(defaultValue = "" + ProductChangeFeed.DEFAULT_LIMIT) int limit,
+            @RequestParam(defaultValue = "0") long wait) {
+        if (since == null) {
+            String current = String.valueOf(productChangeFeed.currentSeq());
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.OK)
+                    .body(new ApiResponse<>(HttpStatus.OK, "Success", List.of(), null, current)));
+        }
+        try {
+            return productChangeFeed.changesAfter(since, limit, Duration.ofSeconds(wait))
+                    .thenApply(changes -> {
+                        long next = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSeq();
+                        return ResponseEntity.status(HttpStatus.OK)
+                                .body(new ApiResponse<>(HttpStatus.OK, "Success", changes, null, String.valueOf(next)));
+                    });
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(HttpStatus.BAD_REQUEST, "Bad Request", null,
+                            new ApiErrorResponse("bad_request", "Bad Request", e.getMessage(),
+                                    HttpStatus.BAD_REQUEST))));
+        } catch (ProductChangesExpiredException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.GONE)
+                    .body(new ApiResponse<>(HttpStatus.GONE, "Gone", null,
+                            new ApiErrorResponse("gone", "Gone", e.getMessage(), HttpStatus.GONE))));
+        }
+    }
+
+    // The same changes pushed as Server-Sent Events, one "change" event per product change with the
+    // seq as its id. Browsers reconnect with Last-Event-ID, which takes precedence over since.
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream product changes", description = "Push product changes as Server-Sent Events, optionally only for the products in `ids`")
+    public SseEmitter streamChanges(
+            @RequestParam(required = false) Long since,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(required = false) Set<Long> ids) {
+        try {
+            return productChangeStream.subscribe(lastEventId != null ? lastEventId : since, ids);
+        } catch (IllegalArgumentException e) {
+            throw new ChangeStreamRefused(HttpStatus.BAD_REQUEST, "bad_request", "Bad Request", e.getMessage());
+        } catch (ProductChangesExpiredException e) {
+            throw new ChangeStreamRefused(HttpStatus.GONE, "gone", "Gone", e.getMessage());
+        } catch (RejectedExecutionException e) {
+            throw new ChangeStreamRefused(HttpStatus.SERVICE_UNAVAILABLE, "overloaded", "Service Unavailable",
+                    e.getMessage());
+        }
+    }
+
+    // An SseEmitter handler cannot return an ApiResponse itself, so refusals are thrown and
+    // rendered here, as JSON whatever the stream request accepted
+    @ExceptionHandler(ChangeStreamRefused.class)
+    ResponseEntity<ApiResponse<Void>> changeStreamRefused(ChangeStreamRefused e) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(e.status).contentType(MediaType.APPLICATION_JSON);
+        if (e.status == HttpStatus.SERVICE_UNAVAILABLE) {
+            response.header(HttpHeaders.RETRY_AFTER, "1");
+        }
+        return response.body(new ApiResponse<>(e.status, e.title, null,
+                new ApiErrorResponse(e.type, e.title, e.getMessage(), e.status)));
+    }
+
+    // Requests turned away by LoadSheddingInterceptor before reaching a handler. Also JSON whatever
+    // the request accepted, since it may have asked for an event stream.
+    @ExceptionHandler(RequestRejectedException.class)
+    ResponseEntity<ApiResponse<Void>> requestRejected(RequestRejectedException e) {
+        return ResponseEntity.status(e.getStatus())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ApiResponse<>(e.getStatus(), e.getTitle(), null,
+                        new ApiErrorResponse(e.getType(), e.getTitle(), e.getMessage(), e.getStatus())));
+    }
+
+    static final class ChangeStreamRefused extends RuntimeException {
+        private final HttpStatus status;
+        private final String type;
+        private final String title;
+
+        ChangeStreamRefused(HttpStatus status, String type, String title, String detail) {
+            super(detail, null, false, false);
+            this.status = status;
+            this.type = type;
+            this.title = title;
+        }
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export all products", description = "Stream every available product as newline-delimited JSON")
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        StreamingResponseBody body = productExportService::exportProducts;
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get product by ID", description = "Retrieve a product by its ID")
-    public ResponseEntity<?> getProductById(@PathVariable long id) {
+    public ResponseEntity<?> getProductById(@PathVariable long id, WebRequest request) {
         Optional<Product> product = productService.findById(id);
         if (product.isPresent()) {
+            if (request.checkNotModified(ProductETags.of(product.get()), ProductETags.lastModified(product.get()))) {
+                return null;
+            }
             return ResponseEntity.status(HttpStatus.OK)
                     .body(new ApiResponse<>(HttpStatus.OK, "Success", product.get(), null));
         }
@@ -48,33 +238,103 @@ public class ProductController {
 
     @PostMapping
     @Operation(summary = "Add a new product", description = "Create a new product")
-    public ResponseEntity<ApiResponse<Product>> createProduct(@RequestBody Product product) {
+    public ResponseEntity<?> createProduct(@RequestBody Product product,
+            @RequestHeader(value = "Prefer", required = false) String prefer) {
+        if (prefer != null && prefer.contains("respond-async") && productIngestService.isEnabled()) {
+            return acceptProduct(product);
+        }
+        // POST always creates: an id or deletedAt in the body is ignored, as in bulk creates. A
+        // nonzero id would otherwise reach persist() as a detached entity.
+        product.setId(0);
+        product.setDeletedAt(null);
         Product savedProduct = productService.save(product);
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(new ApiResponse<>(HttpStatus.CREATED, "Product Created", savedProduct, null));
     }
 
-    @PutMapping("/{id}")
-    @Operation(summary = "Update a product", description = "Update product by Id")
-    public ResponseEntity<ApiResponse<Product>> updateProduct(@PathVariable Long id,
-            @RequestBody Product newProductData) {
-        Optional<Product> product = productService.findById(id);
-        if (product.isPresent()) {
-            Product updatedProduct = productService.updateProduct(id, newProductData);
+    @GetMapping("/ingest/{trackingId}")
+    @Operation(summary = "Get ingest status", description = "Check a product accepted with Prefer: respond-async")
+    public ResponseEntity<ApiResponse<IngestStatus>> getIngestStatus(@PathVariable String trackingId) {
+        Optional<IngestStatus> status = productIngestService.status(trackingId);
+        if (status.isPresent()) {
             return ResponseEntity.status(HttpStatus.OK)
-                    .body(new ApiResponse<>(HttpStatus.OK, "Updated", updatedProduct, null));
+                    .body(new ApiResponse<>(HttpStatus.OK, "Success", status.get(), null));
         }
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                .body(new ApiResponse<>(HttpStatus.NOT_FOUND, "Product Not Found", null,
-                        new ApiErrorResponse("not_found", "Product Not Found", "No product found with id " + id,
-                                HttpStatus.NOT_FOUND)));
+                .body(new ApiResponse<>(HttpStatus.NOT_FOUND, "Ingest Not Found", null,
+                        new ApiErrorResponse("not_found", "Ingest Not Found",
+                                "No ingest found with tracking id " + trackingId, HttpStatus.NOT_FOUND)));
+    }
+
+    @PostMapping("/bulk")
+    @Operation(summary = "Add products in bulk", description = "Create many products in batched transactions")
+    public ResponseEntity<ApiResponse<List<BulkItemResult>>> createProducts(@RequestBody List<Product> products) {
+        return bulkResponse(() -> productBulkService.createProducts(products));
+    }
+
+    @PatchMapping("/bulk")
+    @Operation(summary = "Update products in bulk", description = "Update name and/or price of many products by Id; fields left out are kept")
+    public ResponseEntity<ApiResponse<List<BulkItemResult>>> updateProducts(@RequestBody List<ProductUpdate> updates) {
+        return bulkResponse(() -> productBulkService.updateProducts(updates));
+    }
+
+    @DeleteMapping("/bulk")
+    @Operation(summary = "Delete products in bulk", description = "Soft delete many products by Id")
+    public ResponseEntity<ApiResponse<List<BulkItemResult>>> deleteProducts(@RequestBody List<Long> ids) {
+        return bulkResponse(() -> productBulkService.softDeleteProducts(ids));
+    }
+
+    @PostMapping(value = "/prices", consumes = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+    @Operation(summary = "Apply a price feed", description = "Stream {\"id\", \"price\"} updates as NDJSON or a JSON array; repeated updates are coalesced and written in batches")
+    public ResponseEntity<ApiResponse<PriceFeedResult>> applyPrices(InputStream updates) throws IOException {
+        try {
+            PriceFeedResult result = productPriceFeedService.apply(updates);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(new ApiResponse<>(HttpStatus.OK, "Prices Applied", result, null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(HttpStatus.BAD_REQUEST, "Bad Request", null,
+                            new ApiErrorResponse("bad_request", "Bad Request", e.getMessage(),
+                                    HttpStatus.BAD_REQUEST)));
+        }
+    }
+
+    @PutMapping("/{id}")
+    @Operation(summary = "Update a product", description = "Update product by Id; send its version, or If-Match, to guard against lost updates")
+    public ResponseEntity<ApiResponse<Product>> updateProduct(@PathVariable Long id,
+            @RequestBody Product newProductData,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return writeProduct(id, ifMatch, newProductData.getVersion(),
+                expectedVersion -> productService.updateProduct(id, newProductData, expectedVersion));
+    }
+
+    @PatchMapping(value = "/{id}", consumes = { "application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE })
+    @Operation(summary = "Patch a product", description = "Apply a JSON Merge Patch to name and/or price; unchanged products are not written")
+    public ResponseEntity<ApiResponse<Product>> patchProduct(@PathVariable Long id,
+            @RequestBody JsonNode body,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ProductPatch patch;
+        try {
+            patch = ProductPatch.from(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(HttpStatus.BAD_REQUEST, "Bad Request", null,
+                            new ApiErrorResponse("bad_request", "Bad Request", e.getMessage(),
+                                    HttpStatus.BAD_REQUEST)));
+        }
+        return writeProduct(id, ifMatch, patch.getVersion(),
+                expectedVersion -> productService.patchProduct(id, patch, expectedVersion));
     }
 
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete a product", description = "Delete product by Id")
-    public ResponseEntity<?> deleteProduct(@PathVariable Long id) {
+    public ResponseEntity<?> deleteProduct(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         Optional<Product> product = productService.findById(id);
         if (product.isPresent()) {
+            if (!ProductETags.matchesIfMatch(ifMatch, ProductETags.of(product.get()))) {
+                return preconditionFailed(id);
+            }
             try {
                 productService.softDelete(id);
                 return ResponseEntity.noContent().build();
@@ -91,4 +351,87 @@ public class ProductController {
                         new ApiErrorResponse("not_found", "Product Not Found", "No product found with id " + id,
                                 HttpStatus.NOT_FOUND)));
     }
-}
\ No newline at end of file
+
+    // The expected version comes from the body, overridden by If-Match. A stale version is a 412
+    // when it came from If-Match and a 409 otherwise.
+    private ResponseEntity<ApiResponse<Product>> writeProduct(Long id, String ifMatch, Long bodyVersion,
+            Function<Long, Product> write) {
+        Long expectedVersion = bodyVersion;
+        if (ifMatch != null && !ifMatch.trim().equals("*")) {
+            OptionalLong version = ProductETags.versionOf(ifMatch, id);
+            if (version.isEmpty()) {
+                return preconditionFailed(id);
+            }
+            expectedVersion = version.getAsLong();
+        }
+        try {
+            Product product = write.apply(expectedVersion);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .eTag(ProductETags.of(product))
+                    .body(new ApiResponse<>(HttpStatus.OK, "Updated", product, null));
+        } catch (OptimisticLockingFailureException e) {
+            if (ifMatch != null) {
+                return preconditionFailed(id);
+            }
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(HttpStatus.CONFLICT, "Conflict", null,
+                            new ApiErrorResponse("conflict", "Conflict",
+                                    "Product with id " + id + " was modified, expected version " + expectedVersion,
+                                    HttpStatus.CONFLICT)));
+        } catch (ProductNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(HttpStatus.NOT_FOUND, "Product Not Found", null,
+                            new ApiErrorResponse("not_found", "Product Not Found", "No product found with id " + id,
+                                    HttpStatus.NOT_FOUND)));
+        }
+    }
+
+    private ResponseEntity<?> acceptProduct(Product product) {
+        try {
+            IngestStatus status = productIngestService.submit(product);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .location(URI.create("/api/products/ingest/" + status.getTrackingId()))
+                    .body(new ApiResponse<>(HttpStatus.ACCEPTED, "Product Accepted", status, null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(HttpStatus.BAD_REQUEST, "Bad Request", null,
+                            new ApiErrorResponse("bad_request", "Bad Request", e.getMessage(),
+                                    HttpStatus.BAD_REQUEST)));
+        } catch (RejectedExecutionException | IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new ApiResponse<>(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", null,
+                            new ApiErrorResponse("overloaded", "Service Unavailable", e.getMessage(),
+                                    HttpStatus.SERVICE_UNAVAILABLE)));
+        }
+    }
+
+    private <T> ResponseEntity<ApiResponse<T>> preconditionFailed(Long id) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .body(new ApiResponse<>(HttpStatus.PRECONDITION_FAILED, "Precondition Failed", null,
+                        new ApiErrorResponse("precondition_failed", "Precondition Failed",
+                                "Product with id " + id + " has been modified", HttpStatus.PRECONDITION_FAILED)));
+    }
+
+    private ResponseEntity<ApiResponse<List<BulkItemResult>>> bulkResponse(Supplier<List<BulkItemResult>> operation) {
+        try {
+            List<BulkItemResult> results = operation.get();
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(new ApiResponse<>(HttpStatus.OK, "Bulk Processed", results, null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(HttpStatus.BAD_REQUEST, "Bad Request", null,
+                            new ApiErrorResponse("bad_request", "Bad Request", e.getMessage(),
+                                    HttpStatus.BAD_REQUEST)));
+        } catch (BulkWriteInterruptedException e) {
+            // The items listed are done; the client resubmits the rest
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new ApiResponse<>(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", e.getCompleted(),
+                            new ApiErrorResponse("unavailable", "Service Unavailable",
+                                    "Database unavailable, items from index " + e.getCompleted().size()
+                                            + " on were not processed",
+                                    HttpStatus.SERVICE_UNAVAILABLE)));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.product.controller;
+
+import com.example.product.model.Product;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.OptionalLong;
+
+// Validators for product resources. A product's ETag is its id and version, so it changes with
+// every write, and it is strong because If-Match compares it. A list ETag changes whenever any
+// row is written or removed; it is weak because the same list is served in several encodings
+// and only ever checked with If-None-Match, and a weak ETag also lets Tomcat gzip the list.
+final class ProductETags {
+
+  private ProductETags() {
+  }
+
+  static String of(Product product) {
+    long version = product.getVersion() == null ? 0 : product.getVersion();
+    return "\"" + Long.toHexString(product.getId()) + "-" + Long.toHexString(version) + "\"";
+  }
+
+  // The version a single-valued If-Match refers to, if it is one of our ETags for this product
+  static OptionalLong versionOf(String ifMatch, long id) {
+    String etag = ifMatch.trim();
+    String prefix = "\"" + Long.toHexString(id) + "-";
+    if (!etag.startsWith(prefix) || !etag.endsWith("\"") || etag.length() <= prefix.length() + 1) {
+      return OptionalLong.empty();
+    }
+    try {
+      return OptionalLong.of(Long.parseUnsignedLong(etag.substring(prefix.length(), etag.length() - 1), 16));
+    } catch (NumberFormatException e) {
+      return OptionalLong.empty();
+    }
+  }
+
+  // The catalog is versioned by the outbox seq, so a revalidation can answer 304 for up to one relay
+  // interval after a write; the query is digested so different queries never share an ETag
+  static String ofList(long catalogSeq, Object... query) {
+    return "W/\"c-" + Long.toHexString(catalogSeq) + "-" + digest(query) + "\"";
+  }
+
+  static long lastModified(Product product) {
+    LocalDateTime updatedAt = product.getUpdatedAt();
+    return updatedAt == null ? -1 : updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+  }
+
+  // RFC 9110 If-Match: "*" or a comma separated list of strong ETags
+  static boolean matchesIfMatch(String ifMatch, String etag) {
+    if (ifMatch == null) {
+      return true;
+    }
+    for (String candidate : ifMatch.split(",")) {
+      String trimmed = candidate.trim();
+      if (trimmed.equals("*") || Objects.equals(trimmed, etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // 128 bits of SHA-256 over the parameters, each length-prefixed so that no two lists of
+  // parameters feed it the same bytes
+  private static String digest(Object... query) {
+    MessageDigest sha256;
+    try {
+      sha256 = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+    for (Object part : query) {
+      byte[] bytes = part == null ? null : String.valueOf(part).getBytes(StandardCharsets.UTF_8);
+      sha256.update(length.clear().putInt(bytes == null ? -1 : bytes.length).array());
+      if (bytes != null) {
+        sha256.update(bytes);
+      }
+    }
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(sha256.digest(), 16));
+  }
+}
@@ -0,0 +1,84 @@
+package com.example.product.controller;
+
+import com.example.product.model.Product;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+// Rendered <tr> markup for the product page, one LRU entry per product. An entry is only reused
+// while the product's updatedAt is unchanged, so every write re-renders its row on next view.
+// Rows hold no locale-dependent text, so one rendering serves every visitor.
+@Component
+@Profile("!reactive")
+public class ProductRowFragments {
+
+  static final String TEMPLATE = "fragments/product-row";
+
+  private final ITemplateEngine templateEngine;
+  private final int maxSize;
+  private final Map<Long, Row> rows;
+
+  public ProductRowFragments(ITemplateEngine templateEngine,
+      @Value("${product.page.fragment-cache-size:10000}") int maxSize) {
+    this.templateEngine = templateEngine;
+    this.maxSize = maxSize;
+    this.rows = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, Row> eldest) {
+        return size() > ProductRowFragments.this.maxSize;
+      }
+    };
+  }
+
+  public List<String> render(List<Product> products) {
+    List<String> html = new ArrayList<>(products.size());
+    for (Product product : products) {
+      html.add(render(product));
+    }
+    return html;
+  }
+
+  public String render(Product product) {
+    Row row;
+    synchronized (rows) {
+      row = rows.get(product.getId());
+    }
+    if (row != null && Objects.equals(row.updatedAt, product.getUpdatedAt())) {
+      return row.html;
+    }
+    String html = templateEngine.process(TEMPLATE, new Context(Locale.ROOT, Map.of("product", product)));
+    if (maxSize > 0) {
+      synchronized (rows) {
+        rows.put(product.getId(), new Row(product.getUpdatedAt(), html));
+      }
+    }
+    return html;
+  }
+
+  int size() {
+    synchronized (rows) {
+      return rows.size();
+    }
+  }
+
+  private static final class Row {
+    private final LocalDateTime updatedAt;
+    private final String html;
+
+    private Row(LocalDateTime updatedAt, String html) {
+      this.updatedAt = updatedAt;
+      this.html = html;
+    }
+  }
+}
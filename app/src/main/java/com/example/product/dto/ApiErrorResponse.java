@@ -1,22 +1,29 @@
 package com.example.product.dto;
 
+import java.io.IOException;
 import java.time.Instant;
 
 import org.springframework.http.HttpStatus;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+@JsonSerialize(using = ApiErrorResponse.Serializer.class)
 public class ApiErrorResponse {
   private String type;
   private String title;
   private String detail;
   private HttpStatus status;
-  private Instant timestamp;
+  private ResponseClock.Tick timestamp;
 
   public ApiErrorResponse(String type, String title, String detail, HttpStatus status) {
     this.type = type;
     this.title = title;
     this.detail = detail;
     this.status = status;
-    this.timestamp = Instant.now();
+    this.timestamp = ResponseClock.now();
   }
 
   public String getType() {
@@ -36,6 +43,27 @@ public class ApiErrorResponse {
   }
 
   public Instant getTimestamp() {
-    return timestamp;
+    return timestamp.instant;
+  }
+
+  static class Serializer extends StdSerializer<ApiErrorResponse> {
+
+    Serializer() {
+      super(ApiErrorResponse.class);
+    }
+
+    @Override
+    public void serialize(ApiErrorResponse error, JsonGenerator gen, SerializerProvider provider) throws IOException {
+      gen.writeStartObject();
+      gen.writeFieldName(EnvelopeFields.TYPE);
+      gen.writeString(error.type);
+      gen.writeFieldName(EnvelopeFields.TITLE);
+      gen.writeString(error.title);
+      gen.writeFieldName(EnvelopeFields.DETAIL);
+      gen.writeString(error.detail);
+      EnvelopeFields.writeStatus(gen, error.status);
+      EnvelopeFields.writeTimestamp(gen, provider, error.timestamp);
+      gen.writeEndObject();
+    }
   }
 }
@@ -1,22 +1,42 @@
 package com.example.product.dto;
 
+import java.io.IOException;
 import java.time.Instant;
 
 import org.springframework.http.HttpStatus;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+@JsonSerialize(using = ApiResponse.Serializer.class)
 public class ApiResponse<T> {
-  private Meta meta;
-  private T data;
-  private Object error;
+  private static final Object[] NO_ERROR = {};
+
+  private final HttpStatus status;
+  private final String message;
+  private final ResponseClock.Tick timestamp;
+  private final String next;
+  private final T data;
+  private final Object error;
 
   public ApiResponse(HttpStatus status, String message, T data, Object error) {
-    this.meta = new Meta(status, message, Instant.now());
+    this(status, message, data, error, null);
+  }
+
+  public ApiResponse(HttpStatus status, String message, T data, Object error, String next) {
+    this.status = status;
+    this.message = message;
+    this.timestamp = ResponseClock.now();
+    this.next = next;
     this.data = data;
-    this.error = error == null ? new Object[] {} : error;
+    this.error = error == null ? NO_ERROR : error;
   }
 
   public Meta getMeta() {
-    return meta;
+    return new Meta(status, message, timestamp.instant, next);
   }
 
   public T getData() {
@@ -31,11 +51,17 @@ public class ApiResponse<T> {
     private HttpStatus status;
     private String message;
     private Instant timestamp;
+    private String next;
 
     public Meta(HttpStatus status, String message, Instant timestamp) {
+      this(status, message, timestamp, null);
+    }
+
+    public Meta(HttpStatus status, String message, Instant timestamp, String next) {
       this.status = status;
       this.message = message;
       this.timestamp = timestamp;
+      this.next = next;
     }
 
     public HttpStatus getstatus() {
@@ -49,5 +75,48 @@ public class ApiResponse<T> {
     public Instant getTimestamp() {
       return timestamp;
     }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getNext() {
+      return next;
+    }
+  }
+
+  // Writes the envelope straight from the response fields, so no Meta is built and the
+  // field names, status names and timestamp text are the shared pre-encoded ones.
+  @SuppressWarnings("rawtypes")
+  static class Serializer extends StdSerializer<ApiResponse> {
+
+    Serializer() {
+      super(ApiResponse.class);
+    }
+
+    @Override
+    public void serialize(ApiResponse response, JsonGenerator gen, SerializerProvider provider) throws IOException {
+      gen.writeStartObject();
+      gen.writeFieldName(EnvelopeFields.META);
+      gen.writeStartObject();
+      EnvelopeFields.writeStatus(gen, response.status);
+      gen.writeFieldName(EnvelopeFields.MESSAGE);
+      gen.writeString(response.message);
+      EnvelopeFields.writeTimestamp(gen, provider, response.timestamp);
+      if (response.next != null) {
+        gen.writeFieldName(EnvelopeFields.NEXT);
+        gen.writeString(response.next);
+      }
+      gen.writeEndObject();
+
+      gen.writeFieldName(EnvelopeFields.DATA);
+      provider.defaultSerializeValue(response.data, gen);
+
+      gen.writeFieldName(EnvelopeFields.ERROR);
+      if (response.error == NO_ERROR) {
+        gen.writeStartArray();
+        gen.writeEndArray();
+      } else {
+        provider.defaultSerializeValue(response.error, gen);
+      }
+      gen.writeEndObject();
+    }
   }
 }
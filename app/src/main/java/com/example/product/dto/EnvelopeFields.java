@@ -0,0 +1,57 @@
+package com.example.product.dto;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+// Field names and status values for the response envelope, quoted and encoded once.
+final class EnvelopeFields {
+
+  static final SerializedString META = new SerializedString("meta");
+  static final SerializedString DATA = new SerializedString("data");
+  static final SerializedString ERROR = new SerializedString("error");
+  static final SerializedString STATUS = new SerializedString("status");
+  static final SerializedString MESSAGE = new SerializedString("message");
+  static final SerializedString TIMESTAMP = new SerializedString("timestamp");
+  static final SerializedString NEXT = new SerializedString("next");
+  static final SerializedString TYPE = new SerializedString("type");
+  static final SerializedString TITLE = new SerializedString("title");
+  static final SerializedString DETAIL = new SerializedString("detail");
+
+  private static final Map<HttpStatus, SerializedString> STATUS_NAMES = new EnumMap<>(HttpStatus.class);
+
+  static {
+    for (HttpStatus status : HttpStatus.values()) {
+      STATUS_NAMES.put(status, new SerializedString(status.name()));
+    }
+  }
+
+  private EnvelopeFields() {
+  }
+
+  static void writeStatus(JsonGenerator gen, HttpStatus status) throws IOException {
+    gen.writeFieldName(STATUS);
+    if (status == null) {
+      gen.writeNull();
+    } else {
+      gen.writeString(STATUS_NAMES.get(status));
+    }
+  }
+
+  static void writeTimestamp(JsonGenerator gen, SerializerProvider provider, ResponseClock.Tick tick)
+      throws IOException {
+    gen.writeFieldName(TIMESTAMP);
+    if (provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+      provider.defaultSerializeValue(tick.instant, gen);
+    } else {
+      gen.writeString(tick.text);
+    }
+  }
+}
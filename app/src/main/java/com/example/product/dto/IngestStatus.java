@@ -0,0 +1,43 @@
+package com.example.product.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IngestStatus {
+
+  public enum State {
+    PENDING, CREATED, FAILED
+  }
+
+  private final String trackingId;
+  private final State state;
+  private final Long productId;
+  private final String error;
+
+  public IngestStatus(String trackingId, State state, Long productId, String error) {
+    this.trackingId = trackingId;
+    this.state = state;
+    this.productId = productId;
+    this.error = error;
+  }
+
+  public static IngestStatus pending(String trackingId) {
+    return new IngestStatus(trackingId, State.PENDING, null, null);
+  }
+
+  public String getTrackingId() {
+    return trackingId;
+  }
+
+  public State getState() {
+    return state;
+  }
+
+  public Long getProductId() {
+    return productId;
+  }
+
+  public String getError() {
+    return error;
+  }
+}
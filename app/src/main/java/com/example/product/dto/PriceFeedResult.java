@@ -0,0 +1,49 @@
+package com.example.product.dto;
+
+// received = applied + coalesced + skipped + rejected
+public class PriceFeedResult {
+
+  private final long received;
+  private final long applied;
+  private final long coalesced;
+  private final long skipped;
+  private final long rejected;
+  private final int batches;
+
+  public PriceFeedResult(long received, long applied, long coalesced, long skipped, long rejected, int batches) {
+    this.received = received;
+    this.applied = applied;
+    this.coalesced = coalesced;
+    this.skipped = skipped;
+    this.rejected = rejected;
+    this.batches = batches;
+  }
+
+  public long getReceived() {
+    return received;
+  }
+
+  // Rows actually written
+  public long getApplied() {
+    return applied;
+  }
+
+  // Superseded by a later price for the same product in the same window
+  public long getCoalesced() {
+    return coalesced;
+  }
+
+  // Unknown or deleted product, or the price was already current
+  public long getSkipped() {
+    return skipped;
+  }
+
+  // Missing id, or a missing, negative or non-finite price
+  public long getRejected() {
+    return rejected;
+  }
+
+  public int getBatches() {
+    return batches;
+  }
+}
@@ -0,0 +1,32 @@
+package com.example.product.dto;
+
+// One line of a price feed; boxed so a missing field can be told from zero
+public class PriceUpdate {
+
+  private Long id;
+  private Double price;
+
+  public PriceUpdate() {
+  }
+
+  public PriceUpdate(Long id, Double price) {
+    this.id = id;
+    this.price = price;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public Double getPrice() {
+    return price;
+  }
+
+  public void setPrice(Double price) {
+    this.price = price;
+  }
+}
@@ -0,0 +1,45 @@
+package com.example.product.dto;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.List;
+
+import com.example.product.model.Product;
+
+public class ProductPage {
+  private final List<Product> products;
+  private final String next;
+
+  public ProductPage(List<Product> products, String next) {
+    this.products = products;
+    this.next = next;
+  }
+
+  public List<Product> getProducts() {
+    return products;
+  }
+
+  public String getNext() {
+    return next;
+  }
+
+  public static String encodeCursor(long lastId) {
+    byte[] bytes = ByteBuffer.allocate(Long.BYTES).putLong(lastId).array();
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+  }
+
+  public static long decodeCursor(String cursor) {
+    if (cursor == null || cursor.isEmpty()) {
+      return 0L;
+    }
+    try {
+      byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+      if (bytes.length != Long.BYTES) {
+        throw new IllegalArgumentException("Invalid cursor " + cursor);
+      }
+      return ByteBuffer.wrap(bytes).getLong();
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid cursor " + cursor, e);
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package com.example.product.dto;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+// A JSON Merge Patch (RFC 7396) for a product. Only name and price can be patched; a missing
+// member leaves the column alone, and since neither column is nullable, null is rejected.
+// "version", when present, is the version the client read, as on PUT.
+public class ProductPatch {
+
+  private final String name;
+  private final Double price;
+  private final Long version;
+
+  public ProductPatch(String name, Double price, Long version) {
+    this.name = name;
+    this.price = price;
+    this.version = version;
+  }
+
+  public static ProductPatch from(JsonNode patch) {
+    if (patch == null || !patch.isObject()) {
+      throw new IllegalArgumentException("A merge patch must be a JSON object");
+    }
+    String name = null;
+    Double price = null;
+    Long version = null;
+    for (Iterator<Map.Entry<String, JsonNode>> fields = patch.fields(); fields.hasNext();) {
+      Map.Entry<String, JsonNode> field = fields.next();
+      JsonNode value = field.getValue();
+      switch (field.getKey()) {
+        case "name" -> {
+          if (!value.isTextual() || value.asText().isBlank()) {
+            throw new IllegalArgumentException("name must be a non-empty string");
+          }
+          name = value.asText();
+        }
+        case "price" -> {
+          if (!value.isNumber()) {
+            throw new IllegalArgumentException("price must be a number");
+          }
+          price = value.asDouble();
+        }
+        case "version" -> {
+          if (!value.isIntegralNumber()) {
+            throw new IllegalArgumentException("version must be an integer");
+          }
+          version = value.asLong();
+        }
+        default -> throw new IllegalArgumentException("Field " + field.getKey() + " cannot be patched");
+      }
+    }
+    return new ProductPatch(name, price, version);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public Double getPrice() {
+    return price;
+  }
+
+  public Long getVersion() {
+    return version;
+  }
+
+  public boolean isEmpty() {
+    return name == null && price == null;
+  }
+}
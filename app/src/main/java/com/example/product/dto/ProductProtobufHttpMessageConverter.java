@@ -0,0 +1,185 @@
+package com.example.product.dto;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import com.example.product.model.Product;
+import com.example.product.proto.ApiError;
+import com.example.product.proto.Meta;
+import com.example.product.proto.ProductListResponse;
+import com.example.product.proto.ProductResponse;
+import com.google.protobuf.Message;
+import com.google.protobuf.Timestamp;
+
+// Writes responses whose data is a product, a list of products or nothing as the messages in
+// product.proto. Endpoints declared with any other payload are left to the Jackson converters,
+// so a client that only accepts Protobuf gets 406 from them. Request bodies are not read.
+public class ProductProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<ApiResponse<?>> {
+
+  public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+  private enum Payload { ANY, PRODUCT, LIST, UNSUPPORTED }
+
+  public ProductProtobufHttpMessageConverter() {
+    super(PROTOBUF);
+  }
+
+  @Override
+  protected boolean supports(Class<?> clazz) {
+    return ApiResponse.class.isAssignableFrom(clazz);
+  }
+
+  @Override
+  public boolean canRead(Class<?> clazz, MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+    return canWrite(clazz, mediaType) && declaredPayload(type) != Payload.UNSUPPORTED;
+  }
+
+  @Override
+  protected void writeInternal(ApiResponse<?> response, Type type, HttpOutputMessage outputMessage)
+      throws IOException {
+    Message message = toMessage(response, declaredPayload(type));
+    outputMessage.getHeaders().setContentLength(message.getSerializedSize());
+    message.writeTo(outputMessage.getBody());
+  }
+
+  @Override
+  public ApiResponse<?> read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+    throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+  }
+
+  @Override
+  protected ApiResponse<?> readInternal(Class<? extends ApiResponse<?>> clazz, HttpInputMessage inputMessage) {
+    throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+  }
+
+  private static Message toMessage(ApiResponse<?> response, Payload declared) {
+    ApiResponse.Meta envelope = response.getMeta();
+    Meta.Builder meta = Meta.newBuilder().setTimestamp(timestamp(envelope.getTimestamp()));
+    if (envelope.getstatus() != null) {
+      meta.setStatus(envelope.getstatus().value());
+    }
+    if (envelope.getMessage() != null) {
+      meta.setMessage(envelope.getMessage());
+    }
+    if (envelope.getNext() != null) {
+      meta.setNext(envelope.getNext());
+    }
+    ApiError error = error(response.getError());
+
+    Object data = response.getData();
+    if (data instanceof List<?> || (data == null && declared == Payload.LIST)) {
+      ProductListResponse.Builder list = ProductListResponse.newBuilder().setMeta(meta);
+      if (data != null) {
+        for (Object item : (List<?>) data) {
+          list.addData(product(item));
+        }
+      }
+      if (error != null) {
+        list.setError(error);
+      }
+      return list.build();
+    }
+    ProductResponse.Builder single = ProductResponse.newBuilder().setMeta(meta);
+    if (data != null) {
+      single.setData(product(data));
+    }
+    if (error != null) {
+      single.setError(error);
+    }
+    return single.build();
+  }
+
+  // From the handler's declared return type; ANY when it is a wildcard and only the body can tell
+  private static Payload declaredPayload(Type type) {
+    if (type == null) {
+      return Payload.ANY;
+    }
+    ResolvableType data = ResolvableType.forType(type).as(ApiResponse.class).getGeneric(0);
+    Class<?> raw = data.resolve();
+    if (raw == null || raw == Object.class) {
+      return Payload.ANY;
+    }
+    if (Product.class.isAssignableFrom(raw)) {
+      return Payload.PRODUCT;
+    }
+    if (List.class.isAssignableFrom(raw)) {
+      Class<?> element = data.getGeneric(0).resolve();
+      return element == null || Product.class.isAssignableFrom(element) ? Payload.LIST : Payload.UNSUPPORTED;
+    }
+    return Payload.UNSUPPORTED;
+  }
+
+  private static com.example.product.proto.Product product(Object item) {
+    if (!(item instanceof Product product)) {
+      throw new HttpMessageNotWritableException(
+          "Cannot write " + (item == null ? "null" : item.getClass().getName()) + " as Protobuf");
+    }
+    com.example.product.proto.Product.Builder builder = com.example.product.proto.Product.newBuilder()
+        .setId(product.getId())
+        .setPrice(product.getPrice());
+    if (product.getName() != null) {
+      builder.setName(product.getName());
+    }
+    if (product.getCreatedAt() != null) {
+      builder.setCreatedAt(timestamp(product.getCreatedAt()));
+    }
+    if (product.getUpdatedAt() != null) {
+      builder.setUpdatedAt(timestamp(product.getUpdatedAt()));
+    }
+    if (product.getVersion() != null) {
+      builder.setVersion(product.getVersion());
+    }
+    return builder.build();
+  }
+
+  private static ApiError error(Object error) {
+    if (error instanceof Object[] errors && errors.length == 0) {
+      return null;
+    }
+    if (!(error instanceof ApiErrorResponse apiError)) {
+      throw new HttpMessageNotWritableException("Cannot write error " + error.getClass().getName() + " as Protobuf");
+    }
+    ApiError.Builder builder = ApiError.newBuilder()
+        .setType(apiError.getType())
+        .setTitle(apiError.getTitle())
+        .setTimestamp(timestamp(apiError.getTimestamp()));
+    if (apiError.getDetail() != null) {
+      builder.setDetail(apiError.getDetail());
+    }
+    if (apiError.getStatus() != null) {
+      builder.setStatus(apiError.getStatus().value());
+    }
+    return builder.build();
+  }
+
+  // Local times are read in the server's zone, as for Last-Modified
+  private static Timestamp timestamp(LocalDateTime time) {
+    return timestamp(time.atZone(ZoneId.systemDefault()).toInstant());
+  }
+
+  private static Timestamp timestamp(Instant instant) {
+    return Timestamp.newBuilder().setSeconds(instant.getEpochSecond()).setNanos(instant.getNano()).build();
+  }
+}
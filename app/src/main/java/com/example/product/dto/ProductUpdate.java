@@ -0,0 +1,43 @@
+package com.example.product.dto;
+
+// One item of a bulk update; boxed so a field left out keeps its stored value instead of
+// becoming null or 0.0
+public class ProductUpdate {
+
+  private Long id;
+  private String name;
+  private Double price;
+
+  public ProductUpdate() {
+  }
+
+  public ProductUpdate(Long id, String name, Double price) {
+    this.id = id;
+    this.name = name;
+    this.price = price;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public Double getPrice() {
+    return price;
+  }
+
+  public void setPrice(Double price) {
+    this.price = price;
+  }
+}
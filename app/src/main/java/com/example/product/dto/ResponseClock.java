@@ -0,0 +1,37 @@
+package com.example.product.dto;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+
+// Response timestamps have millisecond precision, so every envelope created in the same
+// millisecond shares one Instant and its pre-encoded ISO-8601 text.
+final class ResponseClock {
+
+  private static volatile Tick current = new Tick(System.currentTimeMillis());
+
+  private ResponseClock() {
+  }
+
+  static Tick now() {
+    long millis = System.currentTimeMillis();
+    Tick tick = current;
+    if (tick.millis != millis) {
+      tick = new Tick(millis);
+      current = tick;
+    }
+    return tick;
+  }
+
+  static final class Tick {
+    final long millis;
+    final Instant instant;
+    final SerializedString text;
+
+    private Tick(long millis) {
+      this.millis = millis;
+      this.instant = Instant.ofEpochMilli(millis);
+      this.text = new SerializedString(instant.toString());
+    }
+  }
+}
@@ -0,0 +1,15 @@
+package com.example.product.dto;
+
+import java.util.Locale;
+
+public enum SearchMode {
+  PREFIX, SUBSTRING, FULLTEXT;
+
+  public static SearchMode parse(String mode) {
+    try {
+      return valueOf(mode.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Unknown search mode " + mode + ", expected prefix, substring or fulltext");
+    }
+  }
+}
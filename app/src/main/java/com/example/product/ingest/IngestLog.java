@@ -0,0 +1,177 @@
+package com.example.product.ingest;
+
+import com.example.product.model.Product;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+// Append-only JSON lines log of accepted creates ("A") and finished ones ("D"). Whatever was
+// accepted but never finished is replayed on startup. Concurrent appends share fsyncs: a
+// caller whose record was already covered by another thread's force() returns immediately.
+class IngestLog implements AutoCloseable {
+
+  private final ObjectMapper objectMapper;
+  private final FileChannel channel;
+  private final boolean fsync;
+  private final Object appendLock = new Object();
+  private final Object syncLock = new Object();
+  private long written;
+  private volatile long synced;
+
+  IngestLog(Path path, boolean fsync, ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+    this.fsync = fsync;
+    try {
+      if (path.getParent() != null) {
+        Files.createDirectories(path.getParent());
+      }
+      this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+          StandardOpenOption.WRITE);
+      this.written = channel.size();
+      this.synced = written;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot open ingest log " + path, e);
+    }
+  }
+
+  // Returns the accepted-but-unfinished entries in acceptance order; a torn last line is ignored
+  Map<String, Product> pending() {
+    Map<String, Product> pending = new LinkedHashMap<>();
+    try {
+      channel.position(0);
+      BufferedReader reader = new BufferedReader(
+          new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+      String line;
+      while ((line = reader.readLine()) != null) {
+        Record record;
+        try {
+          record = objectMapper.readValue(line, Record.class);
+        } catch (IOException e) {
+          break;
+        }
+        if ("A".equals(record.op)) {
+          pending.put(record.id, new Product(0, record.name, record.price));
+        } else {
+          pending.remove(record.id);
+        }
+      }
+      channel.position(written);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot read ingest log", e);
+    }
+    return pending;
+  }
+
+  void accepted(String trackingId, Product product) {
+    long end = append(List.of(new Record("A", trackingId, product.getName(), product.getPrice())));
+    if (fsync) {
+      syncTo(end);
+    }
+  }
+
+  // Finished records are not forced: losing them in a crash only means a replay that the
+  // unique name constraint turns into a failed duplicate
+  void finished(List<String> trackingIds) {
+    List<Record> records = new ArrayList<>(trackingIds.size());
+    for (String trackingId : trackingIds) {
+      records.add(new Record("D", trackingId, null, 0));
+    }
+    append(records);
+  }
+
+  // Drops the log once nothing in it is outstanding, so it does not grow without bound
+  void truncateIfIdle(BooleanSupplier idle) {
+    synchronized (appendLock) {
+      if (!idle.getAsBoolean()) {
+        return;
+      }
+      try {
+        channel.truncate(0);
+        channel.position(0);
+        written = 0;
+        synced = 0;
+      } catch (IOException e) {
+        throw new UncheckedIOException("Cannot truncate ingest log", e);
+      }
+    }
+  }
+
+  private long append(List<Record> records) {
+    try {
+      StringBuilder lines = new StringBuilder();
+      for (Record record : records) {
+        lines.append(objectMapper.writeValueAsString(record)).append('\n');
+      }
+      ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+      synchronized (appendLock) {
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+        written = channel.position();
+        return written;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot append to ingest log", e);
+    }
+  }
+
+  private void syncTo(long end) {
+    if (synced >= end) {
+      return;
+    }
+    synchronized (syncLock) {
+      if (synced >= end) {
+        return;
+      }
+      long target;
+      synchronized (appendLock) {
+        target = written;
+      }
+      try {
+        channel.force(false);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Cannot sync ingest log", e);
+      }
+      synced = target;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  static class Record {
+    public String op;
+    public String id;
+    public String name;
+    public double price;
+
+    Record() {
+    }
+
+    Record(String op, String id, String name, double price) {
+      this.op = op;
+      this.id = id;
+      this.name = name;
+      this.price = price;
+    }
+  }
+}
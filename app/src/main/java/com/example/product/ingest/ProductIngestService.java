@@ -0,0 +1,257 @@
+package com.example.product.ingest;
+
+import com.example.product.dto.BulkItemResult;
+import com.example.product.dto.IngestStatus;
+import com.example.product.dto.IngestStatus.State;
+import com.example.product.model.Product;
+import com.example.product.service.BulkWriteInterruptedException;
+import com.example.product.service.ProductBulkService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Write-behind path for product creation. Accepted products are logged durably, queued and
+// written by a single writer thread in batches through ProductBulkService, so an ingest burst
+// holds at most one pooled connection instead of one per request. The queue is bounded: when
+// it is full, submit() fails fast and the caller is expected to back off.
+@Service
+@Profile("!reactive")
+public class ProductIngestService {
+
+  private final ProductBulkService productBulkService;
+  private final ObjectMapper objectMapper;
+  private final boolean enabled;
+  private final int batchSize;
+  private final Duration linger;
+  private final Path logPath;
+  private final boolean fsync;
+  private final int statusRetention;
+
+  private final Semaphore capacity;
+  private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+  private final Map<String, IngestStatus> statuses = new ConcurrentHashMap<>();
+  private final Queue<String> finishedOrder = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger finishedCount = new AtomicInteger();
+  private final AtomicLong outstanding = new AtomicLong();
+
+  private IngestLog log;
+  private Thread writer;
+  private volatile boolean running;
+
+  public ProductIngestService(ProductBulkService productBulkService, ObjectMapper objectMapper,
+      @Value("${product.ingest.enabled:false}") boolean enabled,
+      @Value("${product.ingest.queue-capacity:10000}") int queueCapacity,
+      @Value("${product.ingest.batch-size:500}") int batchSize,
+      @Value("${product.ingest.linger:PT0.05S}") Duration linger,
+      @Value("${product.ingest.log-path:data/ingest.log}") Path logPath,
+      @Value("${product.ingest.log-fsync:true}") boolean fsync,
+      @Value("${product.ingest.status-retention:100000}") int statusRetention) {
+    if (queueCapacity <= 0 || batchSize <= 0 || batchSize > ProductBulkService.MAX_ITEMS) {
+      throw new IllegalArgumentException("product.ingest.queue-capacity and batch-size must be positive, "
+          + "batch-size at most " + ProductBulkService.MAX_ITEMS);
+    }
+    this.productBulkService = productBulkService;
+    this.objectMapper = objectMapper;
+    this.enabled = enabled;
+    this.batchSize = batchSize;
+    this.linger = linger;
+    this.logPath = logPath;
+    this.fsync = fsync;
+    this.statusRetention = statusRetention;
+    this.capacity = new Semaphore(queueCapacity);
+  }
+
+  @PostConstruct
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+    log = new IngestLog(logPath, fsync, objectMapper);
+    // Replayed entries were admitted before the restart, so they do not take queue permits
+    log.pending().forEach((trackingId, product) -> {
+      outstanding.incrementAndGet();
+      statuses.put(trackingId, IngestStatus.pending(trackingId));
+      queue.add(new Entry(trackingId, product, false));
+    });
+    running = true;
+    writer = new Thread(this::writeLoop, "product-ingest-writer");
+    writer.start();
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public IngestStatus submit(Product product) {
+    if (!running) {
+      throw new IllegalStateException("Asynchronous ingestion is not running");
+    }
+    if (product.getName() == null || product.getName().isBlank()) {
+      throw new IllegalArgumentException("name is required");
+    }
+    if (!capacity.tryAcquire()) {
+      throw new RejectedExecutionException("Ingest queue is full");
+    }
+    String trackingId = UUID.randomUUID().toString();
+    Product accepted = new Product(0, product.getName(), product.getPrice());
+    outstanding.incrementAndGet();
+    try {
+      log.accepted(trackingId, accepted);
+    } catch (RuntimeException e) {
+      outstanding.decrementAndGet();
+      capacity.release();
+      throw e;
+    }
+    IngestStatus status = IngestStatus.pending(trackingId);
+    statuses.put(trackingId, status);
+    queue.add(new Entry(trackingId, accepted, true));
+    return status;
+  }
+
+  public Optional<IngestStatus> status(String trackingId) {
+    return Optional.ofNullable(statuses.get(trackingId));
+  }
+
+  @PreDestroy
+  public void stop() throws InterruptedException, IOException {
+    if (writer == null) {
+      return;
+    }
+    running = false;
+    writer.join(TimeUnit.SECONDS.toMillis(30));
+    log.close();
+  }
+
+  // On shutdown the loop drains what is queued; anything it cannot write stays in the log
+  private void writeLoop() {
+    List<Entry> batch = new ArrayList<>(batchSize);
+    while (running || !queue.isEmpty()) {
+      try {
+        Entry first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          log.truncateIfIdle(() -> outstanding.get() == 0);
+          continue;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + linger.toNanos();
+        while (batch.size() < batchSize) {
+          queue.drainTo(batch, batchSize - batch.size());
+          long remaining = deadline - System.nanoTime();
+          if (batch.size() >= batchSize || remaining <= 0) {
+            break;
+          }
+          Entry next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+        flushWithRetry(batch);
+        batch.clear();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  // A write the database interrupts keeps what it finished and retries the rest with backoff;
+  // data errors come back as FAILED results and are final
+  private void flushWithRetry(List<Entry> batch) throws InterruptedException {
+    List<Entry> remaining = batch;
+    long backoffMillis = 100;
+    while (true) {
+      try {
+        flush(remaining);
+        return;
+      } catch (BulkWriteInterruptedException e) {
+        finish(remaining, e.getCompleted());
+        remaining = remaining.subList(e.getCompleted().size(), remaining.size());
+      } catch (RuntimeException e) {
+        // Retried as a whole below
+      }
+      if (!running) {
+        return;
+      }
+      Thread.sleep(backoffMillis);
+      backoffMillis = Math.min(backoffMillis * 2, 5_000);
+    }
+  }
+
+  private void flush(List<Entry> batch) {
+    List<Product> products = new ArrayList<>(batch.size());
+    for (Entry entry : batch) {
+      products.add(new Product(0, entry.product.getName(), entry.product.getPrice()));
+    }
+    finish(batch, productBulkService.createProducts(products));
+  }
+
+  // Results are in batch order and may cover only its first entries
+  private void finish(List<Entry> batch, List<BulkItemResult> results) {
+    if (results.isEmpty()) {
+      return;
+    }
+    List<String> trackingIds = new ArrayList<>(results.size());
+    for (BulkItemResult result : results) {
+      String trackingId = batch.get(result.getIndex()).trackingId;
+      IngestStatus status = result.getStatus() == BulkItemResult.Status.CREATED
+          ? new IngestStatus(trackingId, State.CREATED, result.getId(), null)
+          : new IngestStatus(trackingId, State.FAILED, result.getId(), result.getError());
+      statuses.put(trackingId, status);
+      finishedOrder.add(trackingId);
+      finishedCount.incrementAndGet();
+      trackingIds.add(trackingId);
+    }
+    log.finished(trackingIds);
+
+    int permits = 0;
+    for (Entry entry : batch.subList(0, results.size())) {
+      if (entry.holdsPermit) {
+        permits++;
+      }
+    }
+    outstanding.addAndGet(-results.size());
+    capacity.release(permits);
+
+    while (finishedCount.get() > statusRetention) {
+      statuses.remove(finishedOrder.poll());
+      finishedCount.decrementAndGet();
+    }
+  }
+
+  private static final class Entry {
+    final String trackingId;
+    final Product product;
+    final boolean holdsPermit;
+
+    Entry(String trackingId, Product product, boolean holdsPermit) {
+      this.trackingId = trackingId;
+      this.product = product;
+      this.holdsPermit = holdsPermit;
+    }
+  }
+}
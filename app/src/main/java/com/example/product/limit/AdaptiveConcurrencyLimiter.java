@@ -0,0 +1,124 @@
+package com.example.product.limit;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// A concurrency limit that follows latency, after the gradient limit in Netflix's
+// concurrency-limits. Latency is averaged per window. The baseline drops straight to any faster
+// window and only creeps up towards slower ones, so it tracks latency without queueing. While a
+// window stays within tolerance times the baseline, the limit grows by about its square root,
+// smoothed, and only if the window used at least half of it. Beyond that it is cut at once in
+// proportion, by at most half. Admission is a CAS on the in-flight count; the limit is
+// recomputed by whichever release closes a window.
+public class AdaptiveConcurrencyLimiter {
+
+  private static final int MIN_WINDOW_SAMPLES = 10;
+  private static final double BASELINE_WEIGHT = 0.02;
+  private static final double SMOOTHING = 0.2;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final double tolerance;
+  private final long windowNanos;
+  private final LongSupplier nanoTime;
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger peakInFlight = new AtomicInteger();
+  private final LongAdder latencyNanos = new LongAdder();
+  private final LongAdder samples = new LongAdder();
+  private final AtomicLong windowStart;
+  private final AtomicBoolean updating = new AtomicBoolean();
+  private volatile double limit;
+  // Only touched by the thread that holds updating
+  private double baselineNanos;
+
+  public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, long windowNanos) {
+    this(initialLimit, minLimit, maxLimit, tolerance, windowNanos, System::nanoTime);
+  }
+
+  AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, long windowNanos,
+      LongSupplier nanoTime) {
+    if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+      throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= initial <= max");
+    }
+    if (tolerance < 1) {
+      throw new IllegalArgumentException("Latency tolerance must be at least 1");
+    }
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.tolerance = tolerance;
+    this.windowNanos = windowNanos;
+    this.nanoTime = nanoTime;
+    this.limit = initialLimit;
+    this.windowStart = new AtomicLong(nanoTime.getAsLong());
+  }
+
+  public boolean tryAcquire() {
+    int max = getLimit();
+    while (true) {
+      int current = inFlight.get();
+      if (current >= max) {
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        peakInFlight.accumulateAndGet(current + 1, Math::max);
+        return true;
+      }
+    }
+  }
+
+  public void release(long latency) {
+    inFlight.decrementAndGet();
+    latencyNanos.add(latency);
+    samples.increment();
+    long now = nanoTime.getAsLong();
+    long start = windowStart.get();
+    if (now - start >= windowNanos && samples.sum() >= MIN_WINDOW_SAMPLES && updating.compareAndSet(false, true)) {
+      try {
+        if (windowStart.compareAndSet(start, now)) {
+          long count = samples.sumThenReset();
+          double average = (double) latencyNanos.sumThenReset() / count;
+          update(average, peakInFlight.getAndSet(inFlight.get()));
+        }
+      } finally {
+        updating.set(false);
+      }
+    }
+  }
+
+  // For a request that handed off to an async response: it no longer occupies the endpoint,
+  // and how long the response stays open says nothing about load
+  public void release() {
+    inFlight.decrementAndGet();
+  }
+
+  public int getLimit() {
+    return (int) limit;
+  }
+
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  private void update(double latency, int peak) {
+    if (baselineNanos == 0 || latency < baselineNanos) {
+      baselineNanos = latency;
+    } else {
+      baselineNanos += (latency - baselineNanos) * BASELINE_WEIGHT;
+    }
+    double current = limit;
+    double gradient = Math.max(0.5, Math.min(1.0, tolerance * baselineNanos / latency));
+    double next;
+    if (gradient < 1.0) {
+      next = current * gradient + Math.sqrt(current);
+    } else if (peak >= current / 2) {
+      next = current + Math.sqrt(current) * SMOOTHING;
+    } else {
+      return;
+    }
+    limit = Math.max(minLimit, Math.min(maxLimit, next));
+  }
+}
@@ -0,0 +1,179 @@
+package com.example.product.limit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Turns requests away before they reach the controller: a client over its rate gets 429 and an
+// endpoint at its concurrency limit gets 503, both at once and with Retry-After, so overload
+// ends in quick rejections instead of requests queueing for a pool connection. Clients are told
+// apart by remote address. Each endpoint, by method and route, has its own adaptive limit.
+// Long-polls and event streams only count while their handler runs, not while they stay open.
+// A streamed response body is different: it holds a database cursor, and so a pool connection,
+// until the last byte is written, so it also takes a stream permit, from a fixed number well
+// under the pool size, that is only returned when the stream has finished.
+public class LoadSheddingInterceptor implements AsyncHandlerInterceptor, MeterBinder {
+
+  private static final String PERMIT = LoadSheddingInterceptor.class.getName() + ".permit";
+  private static final String STREAM_PERMIT = LoadSheddingInterceptor.class.getName() + ".streamPermit";
+
+  private final TokenBucketRateLimiter rateLimiter;
+  private final Function<String, AdaptiveConcurrencyLimiter> limiterFactory;
+  private final ConcurrentHashMap<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+  private final int maxStreams;
+  private final Semaphore streams;
+  private final LongAdder rateLimited = new LongAdder();
+  private final LongAdder overloaded = new LongAdder();
+  private volatile MeterRegistry registry;
+
+  public LoadSheddingInterceptor(TokenBucketRateLimiter rateLimiter,
+      Function<String, AdaptiveConcurrencyLimiter> limiterFactory, int maxStreams) {
+    if (maxStreams < 1) {
+      throw new IllegalArgumentException("maxStreams must be at least 1");
+    }
+    this.rateLimiter = rateLimiter;
+    this.limiterFactory = limiterFactory;
+    this.maxStreams = maxStreams;
+    this.streams = new Semaphore(maxStreams);
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    if (request.getDispatcherType() != DispatcherType.REQUEST || !(handler instanceof HandlerMethod)) {
+      return true;
+    }
+    long wait = rateLimiter.tryAcquire(request.getRemoteAddr());
+    if (wait > 0) {
+      rateLimited.increment();
+      long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999));
+      throw new RequestRejectedException(HttpStatus.TOO_MANY_REQUESTS, "rate_limited", "Too Many Requests",
+          "Request rate limit exceeded, retry in " + retryAfter + "s", retryAfter);
+    }
+    String endpoint = request.getMethod() + " " + request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    AdaptiveConcurrencyLimiter limiter = limiters.computeIfAbsent(endpoint, this::newLimiter);
+    if (!limiter.tryAcquire()) {
+      overloaded.increment();
+      throw new RequestRejectedException(HttpStatus.SERVICE_UNAVAILABLE, "overloaded", "Service Unavailable",
+          endpoint + " is at its limit of " + limiter.getLimit() + " concurrent requests", 1);
+    }
+    if (streamsBody((HandlerMethod) handler)) {
+      if (!streams.tryAcquire()) {
+        limiter.release();
+        overloaded.increment();
+        throw new RequestRejectedException(HttpStatus.SERVICE_UNAVAILABLE, "overloaded", "Service Unavailable",
+            endpoint + " is at its limit of " + maxStreams + " concurrent streams", 1);
+      }
+      request.setAttribute(STREAM_PERMIT, Boolean.TRUE);
+    }
+    request.setAttribute(PERMIT, new Permit(limiter, System.nanoTime()));
+    return true;
+  }
+
+  @Override
+  public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+      Object handler) {
+    Permit permit = takePermit(request);
+    if (permit != null) {
+      permit.limiter.release();
+    }
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+      Exception ex) {
+    Permit permit = takePermit(request);
+    if (permit != null) {
+      permit.limiter.release(System.nanoTime() - permit.startNanos);
+    }
+    // After a streamed body this runs on the async dispatch, once the body has been written
+    if (request.getAttribute(STREAM_PERMIT) != null) {
+      request.removeAttribute(STREAM_PERMIT);
+      streams.release();
+    }
+  }
+
+  // Clients that have been quiet long enough for their bucket to refill start over from a new one
+  @Scheduled(fixedDelayString = "${product.limit.sweep-interval:PT1M}")
+  public void evictIdleClients() {
+    rateLimiter.evictIdle();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("product.limit.rejected", rateLimited, LongAdder::sum)
+        .tag("reason", "rate")
+        .description("Requests turned away, by reason: rate (429) or concurrency (503)")
+        .register(registry);
+    FunctionCounter.builder("product.limit.rejected", overloaded, LongAdder::sum)
+        .tag("reason", "concurrency")
+        .description("Requests turned away, by reason: rate (429) or concurrency (503)")
+        .register(registry);
+    Gauge.builder("product.limit.streams.in-flight", streams, permits -> maxStreams - permits.availablePermits())
+        .description("Streamed response bodies currently being written")
+        .register(registry);
+    Gauge.builder("product.limit.rate.clients", rateLimiter, TokenBucketRateLimiter::clients)
+        .description("Clients with a partly used token bucket")
+        .register(registry);
+    this.registry = registry;
+    limiters.forEach((endpoint, limiter) -> bindLimiter(registry, endpoint, limiter));
+  }
+
+  private AdaptiveConcurrencyLimiter newLimiter(String endpoint) {
+    AdaptiveConcurrencyLimiter limiter = limiterFactory.apply(endpoint);
+    MeterRegistry meters = registry;
+    if (meters != null) {
+      bindLimiter(meters, endpoint, limiter);
+    }
+    return limiter;
+  }
+
+  private static void bindLimiter(MeterRegistry registry, String endpoint, AdaptiveConcurrencyLimiter limiter) {
+    Gauge.builder("product.limit.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+        .tag("endpoint", endpoint)
+        .description("Current adaptive concurrency limit")
+        .register(registry);
+    Gauge.builder("product.limit.concurrency.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+        .tag("endpoint", endpoint)
+        .description("Requests currently admitted")
+        .register(registry);
+  }
+
+  private static boolean streamsBody(HandlerMethod handler) {
+    ResolvableType type = ResolvableType.forMethodParameter(handler.getReturnType());
+    if (ResponseEntity.class.isAssignableFrom(type.toClass())) {
+      type = type.getGeneric(0);
+    }
+    return StreamingResponseBody.class.isAssignableFrom(type.toClass());
+  }
+
+  private static Permit takePermit(HttpServletRequest request) {
+    Permit permit = (Permit) request.getAttribute(PERMIT);
+    if (permit != null) {
+      request.removeAttribute(PERMIT);
+    }
+    return permit;
+  }
+
+  private record Permit(AdaptiveConcurrencyLimiter limiter, long startNanos) {
+  }
+}
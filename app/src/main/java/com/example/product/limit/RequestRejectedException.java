@@ -0,0 +1,38 @@
+package com.example.product.limit;
+
+import org.springframework.http.HttpStatus;
+
+// A request turned away before its handler ran. Thrown once per rejection under overload,
+// so it carries no stack trace.
+public class RequestRejectedException extends RuntimeException {
+
+  private final HttpStatus status;
+  private final String type;
+  private final String title;
+  private final long retryAfterSeconds;
+
+  public RequestRejectedException(HttpStatus status, String type, String title, String detail,
+      long retryAfterSeconds) {
+    super(detail, null, false, false);
+    this.status = status;
+    this.type = type;
+    this.title = title;
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  public HttpStatus getStatus() {
+    return status;
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public String getTitle() {
+    return title;
+  }
+
+  public long getRetryAfterSeconds() {
+    return retryAfterSeconds;
+  }
+}
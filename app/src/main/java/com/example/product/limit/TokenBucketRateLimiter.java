@@ -0,0 +1,59 @@
+package com.example.product.limit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// One token bucket per client, holding up to burst tokens and refilling at rate per second.
+// A bucket is a single AtomicLong: the time at which it will be full again (the GCRA form of a
+// token bucket), so taking a token is one compare-and-set and nothing refills in the background.
+// A bucket that has refilled is no different from a new one, which is what evictIdle() drops.
+public class TokenBucketRateLimiter {
+
+  private final long nanosPerToken;
+  // How far ahead of now the full time may run while a token is still left
+  private final long toleranceNanos;
+  private final LongSupplier nanoTime;
+  private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+  public TokenBucketRateLimiter(double ratePerSecond, int burst) {
+    this(ratePerSecond, burst, System::nanoTime);
+  }
+
+  TokenBucketRateLimiter(double ratePerSecond, int burst, LongSupplier nanoTime) {
+    if (ratePerSecond <= 0 || burst < 1) {
+      throw new IllegalArgumentException("Rate must be positive and burst at least 1");
+    }
+    this.nanosPerToken = Math.max(1, Math.round(1_000_000_000 / ratePerSecond));
+    this.toleranceNanos = nanosPerToken * (burst - 1);
+    this.nanoTime = nanoTime;
+  }
+
+  // 0 when the client got a token, otherwise the nanos until its next one
+  public long tryAcquire(String client) {
+    long now = nanoTime.getAsLong();
+    AtomicLong bucket = buckets.computeIfAbsent(client, c -> new AtomicLong(now));
+    while (true) {
+      long fullAt = bucket.get();
+      long from = fullAt - now > 0 ? fullAt : now;
+      long wait = from - now - toleranceNanos;
+      if (wait > 0) {
+        return wait;
+      }
+      if (bucket.compareAndSet(fullAt, from + nanosPerToken)) {
+        return 0;
+      }
+    }
+  }
+
+  // A request racing with the removal takes its token from the dropped bucket, so that client
+  // can get one token more than its burst; nothing worse
+  public void evictIdle() {
+    long now = nanoTime.getAsLong();
+    buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+  }
+
+  public int clients() {
+    return buckets.size();
+  }
+}
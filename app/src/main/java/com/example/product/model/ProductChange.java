@@ -0,0 +1,139 @@
+package com.example.product.model;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// One row of the product outbox. Writers insert it in the transaction that changed the product;
+// seq stays null until ProductChangeRelay publishes the row and numbers it. Consumers only ever
+// see published rows, in seq order, and resume with the last seq they applied.
+@Entity
+@Table(name = "product_changes")
+public class ProductChange {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    // Identity rather than a pooled sequence: ids are handed out by the database at insert time,
+    // after the product row is locked, so two writes to one product get ids in commit order
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(unique = true)
+    private Long seq;
+
+    @Column(nullable = false)
+    private long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Type type;
+
+    private String name;
+
+    private Double price;
+
+    private Long version;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+
+    private LocalDateTime publishedAt;
+
+    public ProductChange() {
+    }
+
+    public ProductChange(Type type, Product product, LocalDateTime occurredAt) {
+        this.type = type;
+        this.productId = product.getId();
+        this.name = product.getName();
+        this.price = product.getPrice();
+        this.version = product.getVersion();
+        this.occurredAt = occurredAt;
+    }
+
+    @JsonIgnore
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+
+    public long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(long productId) {
+        this.productId = productId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public void setPrice(Double price) {
+        this.price = price;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(LocalDateTime occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+
+    @JsonIgnore
+    public LocalDateTime getPublishedAt() {
+        return publishedAt;
+    }
+
+    public void setPublishedAt(LocalDateTime publishedAt) {
+        this.publishedAt = publishedAt;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.product.reactive;
+
+import com.example.product.dto.ApiErrorResponse;
+import com.example.product.dto.ApiResponse;
+import com.example.product.dto.ProductPage;
+import com.example.product.model.Product;
+import com.example.product.service.ProductService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Same /api/products contract as ProductController, served by WebFlux over R2DBC
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/products")
+@Tag(name = "Product Controller", description = "Manage product operations")
+public class ReactiveProductController {
+    private final ReactiveProductRepository productRepository;
+
+    public ReactiveProductController(ReactiveProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @GetMapping
+    @Operation(summary = "Get all products", description = "Retrieve available products one page at a time, ordered by id")
+    public Mono<ResponseEntity<ApiResponse<List<Product>>>> getAllProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ProductService.DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice) {
+        long afterId;
+        try {
+            afterId = ProductPage.decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(HttpStatus.BAD_REQUEST, "Bad Request", null,
+                            new ApiErrorResponse("bad_request", "Bad Request", e.getMessage(),
+                                    HttpStatus.BAD_REQUEST))));
+        }
+        int pageSize = Math.min(Math.max(size, 1), ProductService.MAX_PAGE_SIZE);
+        return productRepository.findPage(afterId,
+                name == null ? "" : name,
+                minPrice == null ? -Double.MAX_VALUE : minPrice,
+                maxPrice == null ? Double.MAX_VALUE : maxPrice,
+                pageSize + 1)
+                .collectList()
+                .map(rows -> {
+                    String next = null;
+                    List<Product> products = rows;
+                    if (rows.size() > pageSize) {
+                        products = rows.subList(0, pageSize);
+                        next = ProductPage.encodeCursor(products.get(pageSize - 1).getId());
+                    }
+                    return ResponseEntity.status(HttpStatus.OK)
+                            .body(new ApiResponse<>(HttpStatus.OK, "Success", products, null, next));
+                });
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export all products", description = "Stream every available product as newline-delimited JSON")
+    public Flux<Product> exportProducts() {
+        return productRepository.streamAllLive();
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get product by ID", description = "Retrieve a product by its ID")
+    public Mono<ResponseEntity<?>> getProductById(@PathVariable long id) {
+        return productRepository.findLiveById(id)
+                .<ResponseEntity<?>>map(product -> ResponseEntity.status(HttpStatus.OK)
+                        .body(new ApiResponse<>(HttpStatus.OK, "Success", product, null)))
+                .defaultIfEmpty(notFound(id));
+    }
+
+    @PostMapping
+    @Operation(summary = "Add a new product", description = "Create a new product")
+    public Mono<ResponseEntity<ApiResponse<Product>>> createProduct(@RequestBody Product product) {
+        return productRepository.insert(product)
+                .map(savedProduct -> ResponseEntity.status(HttpStatus.CREATED)
+                        .body(new ApiResponse<>(HttpStatus.CREATED, "Product Created", savedProduct, null)));
+    }
+
+    @PutMapping("/{id}")
+    @Operation(summary = "Update a product", description = "Update product by Id")
+    public Mono<ResponseEntity<ApiResponse<Product>>> updateProduct(@PathVariable Long id,
+            @RequestBody Product newProductData) {
+        return productRepository.update(id, newProductData)
+                .map(updatedProduct -> ResponseEntity.status(HttpStatus.OK)
+                        .body(new ApiResponse<>(HttpStatus.OK, "Updated", updatedProduct, null)))
+                .switchIfEmpty(Mono.defer(() -> newProductData.getVersion() == null
+                        ? Mono.just(ReactiveProductController.<Product>notFound(id))
+                        : productRepository.findLiveById(id)
+                                .map(current -> ReactiveProductController.<Product>conflict(id, newProductData.getVersion()))
+                                .defaultIfEmpty(notFound(id))));
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Delete a product", description = "Delete product by Id")
+    public Mono<ResponseEntity<?>> deleteProduct(@PathVariable Long id) {
+        return productRepository.softDelete(id)
+                .<ResponseEntity<?>>map(deleted -> deleted ? ResponseEntity.noContent().build() : notFound(id));
+    }
+
+    private static <T> ResponseEntity<ApiResponse<T>> conflict(long id, long expectedVersion) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new ApiResponse<>(HttpStatus.CONFLICT, "Conflict", null,
+                        new ApiErrorResponse("conflict", "Conflict",
+                                "Product with id " + id + " was modified, expected version " + expectedVersion,
+                                HttpStatus.CONFLICT)));
+    }
+
+    private static <T> ResponseEntity<ApiResponse<T>> notFound(long id) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new ApiResponse<>(HttpStatus.NOT_FOUND, "Product Not Found", null,
+                        new ApiErrorResponse("not_found", "Product Not Found", "No product found with id " + id,
+                                HttpStatus.NOT_FOUND)));
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.product.reactive;
+
+import com.example.product.model.Product;
+import com.example.product.model.ProductChange;
+
+import io.r2dbc.spi.Readable;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Non-blocking access to the products table. Plain SQL over DatabaseClient keeps the JPA
+// mapping on Product untouched; queries mirror the ones ProductRepository derives.
+// Every write also appends its change to the product_changes outbox in the same statement, as the
+// servlet writers do in their transaction, so a reactive node sharing the database still feeds
+// the change feed and moves the seq that list ETags and the storefront page are versioned by.
+@Repository
+@Profile("reactive")
+public class ReactiveProductRepository {
+
+  private static final String COLUMNS = "id, name, price, created_at, updated_at, deleted_at, version";
+
+  private final DatabaseClient databaseClient;
+
+  public ReactiveProductRepository(DatabaseClient databaseClient) {
+    this.databaseClient = databaseClient;
+  }
+
+  public Mono<Product> findLiveById(long id) {
+    return databaseClient.sql("SELECT " + COLUMNS + " FROM products WHERE id = :id AND deleted_at IS NULL")
+        .bind("id", id)
+        .map(ReactiveProductRepository::toProduct)
+        .one();
+  }
+
+  public Flux<Product> findPage(long afterId, String namePrefix, double minPrice, double maxPrice, int limit) {
+    return databaseClient.sql("SELECT " + COLUMNS + " FROM products"
+        + " WHERE deleted_at IS NULL AND id > :afterId AND name LIKE :namePattern ESCAPE '\\'"
+        + " AND price BETWEEN :minPrice AND :maxPrice ORDER BY id LIMIT :limit")
+        .bind("afterId", afterId)
+        .bind("namePattern", escapeLike(namePrefix) + "%")
+        .bind("minPrice", minPrice)
+        .bind("maxPrice", maxPrice)
+        .bind("limit", limit)
+        .map(ReactiveProductRepository::toProduct)
+        .all();
+  }
+
+  // Rows are pulled from the server as the subscriber requests them
+  public Flux<Product> streamAllLive() {
+    return databaseClient.sql("SELECT " + COLUMNS + " FROM products WHERE deleted_at IS NULL ORDER BY id")
+        .filter(statement -> statement.fetchSize(500))
+        .map(ReactiveProductRepository::toProduct)
+        .all();
+  }
+
+  public Mono<Product> insert(Product product) {
+    return databaseClient.sql(recordingChange(ProductChange.Type.CREATED,
+        "INSERT INTO products (id, name, price, created_at, updated_at)"
+        + " VALUES (nextval('products_id_seq'), :name, :price, now(), now())", COLUMNS))
+        .bind("name", product.getName())
+        .bind("price", product.getPrice())
+        .map(ReactiveProductRepository::toProduct)
+        .one();
+  }
+
+  // Empty when the product is gone or, if product carries a version, that version is stale
+  public Mono<Product> update(long id, Product product) {
+    DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(recordingChange(ProductChange.Type.UPDATED,
+        "UPDATE products SET name = :name, price = :price, version = version + 1, updated_at = now()"
+        + " WHERE id = :id AND deleted_at IS NULL AND (CAST(:version AS BIGINT) IS NULL OR version = :version)",
+        COLUMNS))
+        .bind("id", id)
+        .bind("name", product.getName())
+        .bind("price", product.getPrice());
+    spec = product.getVersion() == null ? spec.bindNull("version", Long.class) : spec.bind("version", product.getVersion());
+    return spec.map(ReactiveProductRepository::toProduct).one();
+  }
+
+  public Mono<Boolean> softDelete(long id) {
+    return databaseClient.sql(recordingChange(ProductChange.Type.DELETED,
+        "UPDATE products SET deleted_at = now(), version = version + 1 WHERE id = :id AND deleted_at IS NULL",
+        "count(*) AS deleted"))
+        .bind("id", id)
+        .map(row -> row.get("deleted", Long.class) > 0)
+        .one();
+  }
+
+  // A data-modifying WITH always runs to completion, so the outbox row is written even though
+  // the outer SELECT only reads the product back. The product row is written, and locked, first,
+  // which keeps the outbox ids in commit order per product.
+  private static String recordingChange(ProductChange.Type type, String write, String returning) {
+    return "WITH written AS (" + write + " RETURNING " + COLUMNS + "),"
+        + " recorded AS (INSERT INTO product_changes (product_id, type, name, price, version, occurred_at)"
+        + " SELECT id, '" + type.name() + "', name, price, version, LOCALTIMESTAMP FROM written)"
+        + " SELECT " + returning + " FROM written";
+  }
+
+  private static String escapeLike(String value) {
+    return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+  }
+
+  private static Product toProduct(Readable row) {
+    Product product = new Product(row.get("id", Long.class), row.get("name", String.class),
+        row.get("price", BigDecimal.class).doubleValue());
+    product.setCreatedAt(row.get("created_at", LocalDateTime.class));
+    product.setUpdatedAt(row.get("updated_at", LocalDateTime.class));
+    product.setDeletedAt(row.get("deleted_at", LocalDateTime.class));
+    product.setVersion(row.get("version", Long.class));
+    return product;
+  }
+}
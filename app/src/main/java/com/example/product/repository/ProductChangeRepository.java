@@ -0,0 +1,64 @@
+package com.example.product.repository;
+
+import com.example.product.model.ProductChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.RepositoryDefinition;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+// The product outbox. Only what writers, the relay and the change feed need is exposed, so the
+// in-memory store can implement it without the rest of JpaRepository.
+@Repository
+@RepositoryDefinition(domainClass = ProductChange.class, idClass = Long.class)
+public interface ProductChangeRepository {
+
+  // Appends must join the transaction that wrote the product, never start their own
+  @Transactional(propagation = Propagation.MANDATORY)
+  ProductChange save(ProductChange change);
+
+  <S extends ProductChange> List<S> saveAll(Iterable<S> changes);
+
+  // Set-based writers record the rows they touched with one INSERT ... SELECT of the current
+  // state, soft-deleted rows included
+  @Modifying
+  @Transactional(propagation = Propagation.MANDATORY)
+  @Query(value = "INSERT INTO product_changes (product_id, type, name, price, version, occurred_at) "
+      + "SELECT id, :type, name, price, version, :now FROM products WHERE id IN (:ids) ORDER BY id",
+      nativeQuery = true)
+  int appendSnapshots(@Param("type") String type, @Param("ids") Collection<Long> ids,
+      @Param("now") LocalDateTime now);
+
+  default int appendSnapshots(ProductChange.Type type, Collection<Long> ids, LocalDateTime now) {
+    return ids.isEmpty() ? 0 : appendSnapshots(type.name(), ids, now);
+  }
+
+  List<ProductChange> findBySeqIsNullOrderByIdAsc(Limit limit);
+
+  List<ProductChange> findBySeqGreaterThanOrderBySeqAsc(long seq, Limit limit);
+
+  @Query("SELECT MAX(c.seq) FROM ProductChange c")
+  Long findMaxSeq();
+
+  @Query("SELECT MIN(c.seq) FROM ProductChange c")
+  Long findMinSeq();
+
+  // Only one relay numbers rows at a time, across all instances; the lock ends with the transaction
+  @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+  boolean tryLockRelay(@Param("key") long key);
+
+  // The newest published row is always kept so seq never starts over
+  @Modifying
+  @Transactional
+  @Query(value = "DELETE FROM product_changes WHERE id IN (SELECT id FROM product_changes "
+      + "WHERE seq < (SELECT MAX(seq) FROM product_changes) AND published_at < :cutoff "
+      + "ORDER BY seq LIMIT :batchSize)", nativeQuery = true)
+  int prunePublishedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+}
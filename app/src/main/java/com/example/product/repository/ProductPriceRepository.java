@@ -0,0 +1,10 @@
+package com.example.product.repository;
+
+import java.time.LocalDateTime;
+
+// Plain JDBC price writes, kept apart from the entity so a price feed never hydrates a Product
+public interface ProductPriceRepository {
+
+  // One row count per id: 0 when the product is missing, deleted or already at that price
+  int[] updatePrices(long[] ids, double[] prices, LocalDateTime now);
+}
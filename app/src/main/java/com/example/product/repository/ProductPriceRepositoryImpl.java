@@ -0,0 +1,45 @@
+package com.example.product.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+// Picked up by Spring Data as the ProductPriceRepository fragment of ProductRepository. The
+// statements go out as one JDBC batch in one transaction; callers pass ids in ascending order so
+// two feeds touching the same products lock them in the same order.
+class ProductPriceRepositoryImpl implements ProductPriceRepository {
+
+  private static final String UPDATE_PRICE = "UPDATE products SET price = ?, version = version + 1, updated_at = ? "
+      + "WHERE id = ? AND deleted_at IS NULL AND price <> ?";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  ProductPriceRepositoryImpl(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @Override
+  @Transactional
+  public int[] updatePrices(long[] ids, double[] prices, LocalDateTime now) {
+    Timestamp updatedAt = Timestamp.valueOf(now);
+    return jdbcTemplate.batchUpdate(UPDATE_PRICE, new BatchPreparedStatementSetter() {
+      @Override
+      public void setValues(PreparedStatement statement, int i) throws SQLException {
+        statement.setDouble(1, prices[i]);
+        statement.setTimestamp(2, updatedAt);
+        statement.setLong(3, ids[i]);
+        statement.setDouble(4, prices[i]);
+      }
+
+      @Override
+      public int getBatchSize() {
+        return ids.length;
+      }
+    });
+  }
+}
@@ -2,14 +2,101 @@ package com.example.product.repository;
 
 import com.example.product.model.Product;
 import org.springframework.stereotype.Repository;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.QueryHint;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductPriceRepository {
   Optional<Product> findByName(String name);
 
+  Optional<Product> findByIdAndDeletedAtIsNull(long id);
+
   List<Product> findByDeletedAtIsNull();
-}
\ No newline at end of file
+
+  List<Product> findByDeletedAtIsNullAndIdGreaterThanAndNameStartingWithAndPriceBetweenOrderByIdAsc(long afterId,
+      String namePrefix, double minPrice, double maxPrice, Limit limit);
+
+  int EXPORT_FETCH_SIZE = 500;
+
+  @QueryHints({
+      @QueryHint(name = HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+      @QueryHint(name = HINT_READ_ONLY, value = "true")
+  })
+  @Query("SELECT p FROM Product p WHERE p.deletedAt IS NULL ORDER BY p.id")
+  Stream<Product> streamAllLive();
+
+  // One round trip: the UPDATE matches on id (and version, when one is given) and hands the
+  // new row back through RETURNING. An empty result means the row is gone or the version moved on.
+  @Transactional
+  @Query(value = "UPDATE products SET name = :name, price = :price, version = version + 1, updated_at = :now "
+      + "WHERE id = :id AND deleted_at IS NULL AND (CAST(:version AS BIGINT) IS NULL OR version = :version) "
+      + "RETURNING *", nativeQuery = true)
+  Optional<Product> updateLive(@Param("id") long id, @Param("version") Long version, @Param("name") String name,
+      @Param("price") double price, @Param("now") LocalDateTime now);
+
+  // Merge patch variants of updateLive. Both only match when the patch changes something, so a
+  // patch repeating the stored values writes nothing. The price-only form, the one a price feed
+  // sends, leaves name out of the statement; the other keeps the stored price when :price is null.
+  @Transactional
+  @Query(value = "UPDATE products SET price = :price, version = version + 1, updated_at = :now "
+      + "WHERE id = :id AND deleted_at IS NULL AND (CAST(:version AS BIGINT) IS NULL OR version = :version) "
+      + "AND price <> :price RETURNING *", nativeQuery = true)
+  Optional<Product> patchPrice(@Param("id") long id, @Param("version") Long version, @Param("price") double price,
+      @Param("now") LocalDateTime now);
+
+  @Transactional
+  @Query(value = "UPDATE products SET name = :name, "
+      + "price = COALESCE(CAST(:price AS DOUBLE PRECISION), price), version = version + 1, updated_at = :now "
+      + "WHERE id = :id AND deleted_at IS NULL AND (CAST(:version AS BIGINT) IS NULL OR version = :version) "
+      + "AND (name <> :name OR price <> COALESCE(CAST(:price AS DOUBLE PRECISION), price)) "
+      + "RETURNING *", nativeQuery = true)
+  Optional<Product> patchLive(@Param("id") long id, @Param("version") Long version, @Param("name") String name,
+      @Param("price") Double price, @Param("now") LocalDateTime now);
+
+  // Native, like purgeDeletedBefore, so a soft-deleted row is removed too; deleteById would load
+  // the row through @SQLRestriction first and quietly skip it
+  @Modifying
+  @Transactional
+  @Query(value = "DELETE FROM products WHERE id = :id", nativeQuery = true)
+  int hardDeleteById(@Param("id") long id);
+
+  // Native, so it reaches the soft-deleted rows that Product's @SQLRestriction hides
+  @Modifying
+  @Transactional
+  @Query(value = "DELETE FROM products WHERE id IN "
+      + "(SELECT id FROM products WHERE deleted_at < :cutoff ORDER BY id LIMIT :batchSize)", nativeQuery = true)
+  int purgeDeletedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+
+  // Search queries are native to match the expression indexes in V5; they spell out the
+  // deleted_at filter because @SQLRestriction does not apply to native SQL.
+  @Query(value = "SELECT * FROM products WHERE deleted_at IS NULL AND lower(name) COLLATE \"C\" LIKE :pattern "
+      + "ORDER BY lower(name) COLLATE \"C\", id LIMIT :limit", nativeQuery = true)
+  List<Product> searchByNamePrefix(@Param("pattern") String pattern, @Param("limit") int limit);
+
+  // Shortest names first: the closest matches, and an order the name btree cannot offer, so
+  // the planner drives the query from the trigram index instead of walking every name
+  @Query(value = "SELECT * FROM products WHERE deleted_at IS NULL AND lower(name) LIKE :pattern "
+      + "ORDER BY length(name), lower(name) COLLATE \"C\", id LIMIT :limit", nativeQuery = true)
+  List<Product> searchByNameSubstring(@Param("pattern") String pattern, @Param("limit") int limit);
+
+  @Query(value = "SELECT * FROM products WHERE deleted_at IS NULL "
+      + "AND to_tsvector('english', name) @@ websearch_to_tsquery('english', :query) "
+      + "ORDER BY ts_rank(to_tsvector('english', name), websearch_to_tsquery('english', :query)) DESC, id "
+      + "LIMIT :limit", nativeQuery = true)
+  List<Product> searchByNameFullText(@Param("query") String query, @Param("limit") int limit);
+}
@@ -0,0 +1,22 @@
+package com.example.product.service;
+
+import com.example.product.dto.BulkItemResult;
+
+import java.util.List;
+
+// A bulk write stopped by a transient database failure. The items before the failure are done and
+// their results are kept here in order; nothing from the failing item on was written, so those can
+// be submitted again once the database is back.
+public class BulkWriteInterruptedException extends RuntimeException {
+
+    private final transient List<BulkItemResult> completed;
+
+    public BulkWriteInterruptedException(List<BulkItemResult> completed, RuntimeException cause) {
+        super("Bulk write interrupted after " + completed.size() + " items: " + cause.getMessage(), cause);
+        this.completed = List.copyOf(completed);
+    }
+
+    public List<BulkItemResult> getCompleted() {
+        return completed;
+    }
+}
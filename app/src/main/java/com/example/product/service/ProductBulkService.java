@@ -0,0 +1,243 @@
+package com.example.product.service;
+
+import com.example.product.cache.ProductCache;
+import com.example.product.dto.BulkItemResult;
+import com.example.product.dto.BulkItemResult.Status;
+import com.example.product.dto.ProductUpdate;
+import com.example.product.model.Product;
+import com.example.product.model.ProductChange;
+import com.example.product.repository.ProductChangeRepository;
+import com.example.product.repository.ProductRepository;
+
+import jakarta.persistence.EntityManager;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Profile("!reactive")
+public class ProductBulkService {
+
+    public static final int CHUNK_SIZE = 500;
+    public static final int MAX_ITEMS = 10_000;
+
+    private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final ProductChangeRepository changeRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    // EntityManager and transaction manager are absent when the in-memory store is active
+    public ProductBulkService(ProductRepository productRepository, ProductCache productCache,
+            ProductChangeRepository changeRepository, @Nullable EntityManager entityManager,
+            @Nullable PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.changeRepository = changeRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionManager == null ? null : new TransactionTemplate(transactionManager);
+    }
+
+    public List<BulkItemResult> createProducts(List<Product> products) {
+        return processInChunks(products, this::createChunk);
+    }
+
+    public List<BulkItemResult> updateProducts(List<ProductUpdate> updates) {
+        return processInChunks(updates, this::updateChunk);
+    }
+
+    public List<BulkItemResult> softDeleteProducts(List<Long> ids) {
+        return processInChunks(ids, this::softDeleteChunk);
+    }
+
+    // Each chunk is one transaction. If a chunk fails (e.g. a duplicate name) it is
+    // rolled back and replayed item by item so only the offending items are reported as failed.
+    // A transient failure (the database unreachable, a deadlock) says nothing about the items, so
+    // it stops the whole write with what is done so far, for the caller to retry the rest.
+    private <T> List<BulkItemResult> processInChunks(List<T> items, ChunkOperation<T> operation) {
+        if (items.size() > MAX_ITEMS) {
+            throw new IllegalArgumentException("At most " + MAX_ITEMS + " items are accepted per request");
+        }
+        List<BulkItemResult> results = new ArrayList<>(items.size());
+        for (int offset = 0; offset < items.size(); offset += CHUNK_SIZE) {
+            List<T> chunk = items.subList(offset, Math.min(offset + CHUNK_SIZE, items.size()));
+            try {
+                results.addAll(runChunk(chunk, offset, operation));
+            } catch (RuntimeException e) {
+                stopIfTransient(e, results);
+                for (int i = 0; i < chunk.size(); i++) {
+                    try {
+                        results.addAll(runChunk(List.of(chunk.get(i)), offset + i, operation));
+                    } catch (RuntimeException itemError) {
+                        stopIfTransient(itemError, results);
+                        results.add(BulkItemResult.failed(offset + i, null, rootMessage(itemError)));
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    // Commit failures arrive wrapped, so the whole cause chain is checked
+    private static void stopIfTransient(RuntimeException e, List<BulkItemResult> completed) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException || cause instanceof RecoverableDataAccessException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof CannotCreateTransactionException) {
+                throw new BulkWriteInterruptedException(completed, e);
+            }
+        }
+    }
+
+    private <T> List<BulkItemResult> runChunk(List<T> chunk, int offset, ChunkOperation<T> operation) {
+        List<BulkItemResult> results = transactionTemplate == null
+                ? record(operation.apply(chunk, offset))
+                : transactionTemplate.execute(status -> {
+                    List<BulkItemResult> chunkResults = operation.apply(chunk, offset);
+                    productRepository.flush();
+                    entityManager.clear();
+                    return record(chunkResults);
+                });
+        for (BulkItemResult result : results) {
+            if (result.getStatus() == Status.UPDATED || result.getStatus() == Status.DELETED) {
+                productCache.evict(result.getId());
+            }
+        }
+        return results;
+    }
+
+    // The chunk's outbox rows are read back from the flushed products, so they carry the stored
+    // versions, and are written in the chunk's transaction
+    private List<BulkItemResult> record(List<BulkItemResult> results) {
+        Map<ProductChange.Type, List<Long>> idsByType = new EnumMap<>(ProductChange.Type.class);
+        for (BulkItemResult result : results) {
+            ProductChange.Type type = switch (result.getStatus()) {
+                case CREATED -> ProductChange.Type.CREATED;
+                case UPDATED -> ProductChange.Type.UPDATED;
+                case DELETED -> ProductChange.Type.DELETED;
+                default -> null;
+            };
+            if (type != null) {
+                idsByType.computeIfAbsent(type, t -> new ArrayList<>()).add(result.getId());
+            }
+        }
+        LocalDateTime now = LocalDateTime.now();
+        idsByType.forEach((type, ids) -> changeRepository.appendSnapshots(type, ids, now));
+        return results;
+    }
+
+    private List<BulkItemResult> createChunk(List<Product> chunk, int offset) {
+        List<BulkItemResult> results = new ArrayList<>(chunk.size());
+        List<Product> valid = new ArrayList<>(chunk.size());
+        List<Integer> validIndexes = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Product product = chunk.get(i);
+            if (product.getName() == null || product.getName().isBlank()) {
+                results.add(BulkItemResult.failed(offset + i, null, "name is required"));
+                continue;
+            }
+            product.setId(0);
+            product.setDeletedAt(null);
+            product.setVersion(null);
+            valid.add(product);
+            validIndexes.add(offset + i);
+        }
+        List<Product> saved = productRepository.saveAll(valid);
+        for (int i = 0; i < saved.size(); i++) {
+            results.add(BulkItemResult.of(validIndexes.get(i), saved.get(i).getId(), Status.CREATED));
+        }
+        results.sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+        return results;
+    }
+
+    private List<BulkItemResult> updateChunk(List<ProductUpdate> chunk, int offset) {
+        Map<Long, Product> existing = findLive(chunk.stream()
+                .map(ProductUpdate::getId)
+                .filter(Objects::nonNull)
+                .toList());
+        List<BulkItemResult> results = new ArrayList<>(chunk.size());
+        List<Product> changed = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            ProductUpdate update = chunk.get(i);
+            if (update.getId() == null) {
+                results.add(BulkItemResult.failed(offset + i, null, "id is required"));
+                continue;
+            }
+            if (update.getName() != null && update.getName().isBlank()) {
+                results.add(BulkItemResult.failed(offset + i, update.getId(), "name must not be blank"));
+                continue;
+            }
+            Product product = existing.get(update.getId());
+            if (product == null) {
+                results.add(BulkItemResult.of(offset + i, update.getId(), Status.NOT_FOUND));
+                continue;
+            }
+            // Fields left out keep their stored values
+            if (update.getName() != null) {
+                product.setName(update.getName());
+            }
+            if (update.getPrice() != null) {
+                product.setPrice(update.getPrice());
+            }
+            changed.add(product);
+            results.add(BulkItemResult.of(offset + i, product.getId(), Status.UPDATED));
+        }
+        productRepository.saveAll(changed);
+        return results;
+    }
+
+    private List<BulkItemResult> softDeleteChunk(List<Long> chunk, int offset) {
+        Map<Long, Product> existing = findLive(chunk);
+        LocalDateTime now = LocalDateTime.now();
+        List<BulkItemResult> results = new ArrayList<>(chunk.size());
+        List<Product> changed = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Product product = existing.get(chunk.get(i));
+            if (product == null || product.isDeleted()) {
+                results.add(BulkItemResult.of(offset + i, chunk.get(i), Status.NOT_FOUND));
+                continue;
+            }
+            product.setDeletedAt(now);
+            changed.add(product);
+            results.add(BulkItemResult.of(offset + i, product.getId(), Status.DELETED));
+        }
+        productRepository.saveAll(changed);
+        return results;
+    }
+
+    private Map<Long, Product> findLive(List<Long> ids) {
+        return productRepository.findAllById(ids)
+                .stream()
+                .filter(product -> !product.isDeleted())
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+
+    @FunctionalInterface
+    private interface ChunkOperation<T> {
+        List<BulkItemResult> apply(List<T> chunk, int offset);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.product.service;
+
+import com.example.product.model.ProductChange;
+import com.example.product.repository.ProductChangeRepository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Reads published product changes by seq. A reader that is already up to date can wait for the
+// next batch instead of polling: it parks a future that is completed from the batch itself, so
+// waiting clients cost no queries. The relay thread tails the outbox through catchUp(), which
+// delivers every newly published row exactly once and in seq order to waiters and listeners,
+// whichever instance's relay published it.
+@Service
+@Profile("!reactive")
+public class ProductChangeFeed {
+
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    private final ProductChangeRepository changeRepository;
+    private final Duration maxWait;
+    private final Set<Waiter> waiters = ConcurrentHashMap.newKeySet();
+    private final List<Consumer<List<ProductChange>>> listeners = new CopyOnWriteArrayList<>();
+    // Highest seq delivered, -1 until the first catchUp() has found where the outbox stands
+    private volatile long publishedSeq = -1;
+
+    // Keep max-wait below the servlet container's async timeout so a wait ends with an empty page
+    public ProductChangeFeed(ProductChangeRepository changeRepository,
+            @Value("${product.changes.max-wait:PT25S}") Duration maxWait) {
+        this.changeRepository = changeRepository;
+        this.maxWait = maxWait;
+    }
+
+    // Where a new client starts: load the catalog after taking this, then follow changes from it
+    public long currentSeq() {
+        Long maxSeq = changeRepository.findMaxSeq();
+        return maxSeq == null ? 0 : maxSeq;
+    }
+
+    public CompletableFuture<List<ProductChange>> changesAfter(long since, int limit, Duration wait) {
+        if (since < 0) {
+            throw new IllegalArgumentException("since must not be negative");
+        }
+        int max = Math.min(Math.max(limit, 1), MAX_LIMIT);
+        List<ProductChange> changes = read(since, max);
+        if (!changes.isEmpty() || wait.isZero() || wait.isNegative()) {
+            return CompletableFuture.completedFuture(changes);
+        }
+
+        Waiter waiter = new Waiter(since, max);
+        waiters.add(waiter);
+        // A batch published between the read and add() above did not see this waiter
+        if (publishedSeq > since) {
+            waiters.remove(waiter);
+            return CompletableFuture.completedFuture(read(since, max));
+        }
+        waiter.future.whenComplete((result, error) -> waiters.remove(waiter));
+        long timeout = Math.min(wait.toMillis(), maxWait.toMillis());
+        return waiter.future.completeOnTimeout(List.of(), timeout, TimeUnit.MILLISECONDS);
+    }
+
+    // Listeners are called on the relay thread with every delivered batch and must not block
+    public void addListener(Consumer<List<ProductChange>> listener) {
+        listeners.add(listener);
+    }
+
+    // Called from the relay thread only. The first call just takes the current seq as its start.
+    void catchUp() {
+        if (publishedSeq < 0) {
+            publishedSeq = currentSeq();
+            return;
+        }
+        List<ProductChange> batch;
+        do {
+            batch = changeRepository.findBySeqGreaterThanOrderBySeqAsc(publishedSeq, Limit.of(MAX_LIMIT));
+            deliver(batch);
+        } while (batch.size() == MAX_LIMIT);
+    }
+
+    // A waiter had read nothing after its since, so this batch starts right after it and holds
+    // everything the waiter is missing
+    private void deliver(List<ProductChange> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long lastSeq = batch.get(batch.size() - 1).getSeq();
+        publishedSeq = lastSeq;
+        for (Waiter waiter : waiters) {
+            if (waiter.since < lastSeq) {
+                waiter.future.complete(batch.stream()
+                        .filter(change -> change.getSeq() > waiter.since)
+                        .limit(waiter.limit)
+                        .toList());
+            }
+        }
+        for (Consumer<List<ProductChange>> listener : listeners) {
+            listener.accept(batch);
+        }
+    }
+
+    int waiting() {
+        return waiters.size();
+    }
+
+    private List<ProductChange> read(long since, int limit) {
+        List<ProductChange> changes = changeRepository.findBySeqGreaterThanOrderBySeqAsc(since, Limit.of(limit));
+        if (changes.isEmpty() || changes.get(0).getSeq() != since + 1) {
+            // Pruned past since: the gap can no longer be replayed
+            Long oldestSeq = changeRepository.findMinSeq();
+            if (oldestSeq != null && oldestSeq > since + 1) {
+                throw new ProductChangesExpiredException(since, oldestSeq);
+            }
+        }
+        return changes;
+    }
+
+    private static final class Waiter {
+        private final long since;
+        private final int limit;
+        private final CompletableFuture<List<ProductChange>> future = new CompletableFuture<>();
+
+        private Waiter(long since, int limit) {
+            this.since = since;
+            this.limit = limit;
+        }
+    }
+}
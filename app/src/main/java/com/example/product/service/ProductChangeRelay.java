@@ -0,0 +1,113 @@
+package com.example.product.service;
+
+import com.example.product.model.ProductChange;
+import com.example.product.repository.ProductChangeRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Publishes the product outbox. Each round takes the relay lock, numbers the oldest unpublished
+// rows with consecutive seqs after the highest one already published, and commits; ProductChangeFeed
+// then picks them up, together with anything other instances published, by reading past the last
+// seq it delivered. Rows are numbered in outbox order, so seq order is commit order for any one
+// product, and a client that has seen seq n has seen everything up to n.
+@Service
+@Profile("!reactive")
+public class ProductChangeRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeRelay.class);
+
+    // pg_advisory_xact_lock key, shared by every instance publishing this outbox
+    static final long RELAY_LOCK = 0x70726f6475637473L;
+
+    private final ProductChangeRepository changeRepository;
+    private final ProductChangeFeed changeFeed;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration retention;
+
+    // The transaction manager is absent when the in-memory store is active
+    public ProductChangeRelay(ProductChangeRepository changeRepository, ProductChangeFeed changeFeed,
+            @Nullable PlatformTransactionManager transactionManager,
+            @Value("${product.changes.relay-batch-size:500}") int batchSize,
+            @Value("${product.changes.retention:P7D}") Duration retention) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("product.changes.relay-batch-size must be positive");
+        }
+        this.changeRepository = changeRepository;
+        this.changeFeed = changeFeed;
+        this.transactionTemplate = transactionManager == null ? null : new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${product.changes.relay-interval:PT0.1S}")
+    public int relay() {
+        changeFeed.catchUp();
+        int total = 0;
+        // An idle outbox costs one index probe per round, without a transaction or the lock
+        while (!changeRepository.findBySeqIsNullOrderByIdAsc(Limit.of(1)).isEmpty()) {
+            List<ProductChange> published = inTransaction(this::publishBatch);
+            if (published.isEmpty()) {
+                break; // another instance holds the lock
+            }
+            total += published.size();
+            if (published.size() < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            changeFeed.catchUp();
+        }
+        return total;
+    }
+
+    @Scheduled(initialDelayString = "${product.changes.prune-interval:PT1H}",
+            fixedDelayString = "${product.changes.prune-interval:PT1H}")
+    public int prune() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        int total = 0;
+        int deleted;
+        do {
+            deleted = changeRepository.prunePublishedBefore(cutoff, batchSize);
+            total += deleted;
+        } while (deleted == batchSize);
+
+        if (total > 0) {
+            log.info("Pruned {} product changes published before {}", total, cutoff);
+        }
+        return total;
+    }
+
+    private List<ProductChange> publishBatch() {
+        if (!changeRepository.tryLockRelay(RELAY_LOCK)) {
+            return List.of();
+        }
+        List<ProductChange> batch = changeRepository.findBySeqIsNullOrderByIdAsc(Limit.of(batchSize));
+        Long maxSeq = changeRepository.findMaxSeq();
+        long seq = maxSeq == null ? 0 : maxSeq;
+        LocalDateTime now = LocalDateTime.now();
+        for (ProductChange change : batch) {
+            change.setSeq(++seq);
+            change.setPublishedAt(now);
+        }
+        return changeRepository.saveAll(batch);
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        return transactionTemplate == null ? work.get() : transactionTemplate.execute(status -> work.get());
+    }
+}
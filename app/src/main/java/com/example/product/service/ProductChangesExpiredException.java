@@ -0,0 +1,13 @@
+package com.example.product.service;
+
+public class ProductChangesExpiredException extends RuntimeException {
+
+    public ProductChangesExpiredException(long since, long oldestSeq) {
+        super("Changes after " + since + " are no longer kept, the oldest is " + oldestSeq
+                + "; reload the catalog and resume from a current seq");
+    }
+
+    public ProductChangesExpiredException(String message) {
+        super(message);
+    }
+}
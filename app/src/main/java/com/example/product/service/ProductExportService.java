@@ -0,0 +1,66 @@
+package com.example.product.service;
+
+import com.example.product.model.Product;
+import com.example.product.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+@Profile("!reactive")
+public class ProductExportService {
+
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final ObjectWriter productWriter;
+    private final ObjectMapper objectMapper;
+
+    // No EntityManager when the in-memory store is active; its products are already detached copies
+    public ProductExportService(ProductRepository productRepository, @Nullable EntityManager entityManager,
+            ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.productWriter = objectMapper.writerFor(Product.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    // Rows come through a server-side cursor and are detached once written,
+    // so memory stays flat regardless of catalog size
+    @Transactional
+    public long exportProducts(OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<Product> products = productRepository.streamAllLive();
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                Product product = iterator.next();
+                productWriter.writeValue(generator, product);
+                generator.writeRaw('\n');
+                if (entityManager != null) {
+                    entityManager.detach(product);
+                }
+                if (++count % ProductRepository.EXPORT_FETCH_SIZE == 0) {
+                    generator.flush();
+                }
+            }
+            generator.flush();
+        }
+        return count;
+    }
+}
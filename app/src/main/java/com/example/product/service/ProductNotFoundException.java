@@ -0,0 +1,8 @@
+package com.example.product.service;
+
+public class ProductNotFoundException extends RuntimeException {
+
+    public ProductNotFoundException() {
+        super("Product not found");
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.product.service;
+
+import com.example.product.cache.ProductCache;
+import com.example.product.dto.PriceFeedResult;
+import com.example.product.dto.PriceUpdate;
+import com.example.product.model.ProductChange;
+import com.example.product.repository.ProductChangeRepository;
+import com.example.product.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Applies a stream of (id, price) pairs. Updates are read one at a time and collected per window;
+// within a window only the last price per product survives, and each window is written as one
+// JDBC batch of price-only UPDATEs that skip rows already at that price. The applied rows are
+// recorded in the product outbox in the same transaction as the batch.
+@Service
+@Profile("!reactive")
+public class ProductPriceFeedService {
+
+    private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final ProductChangeRepository changeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader updateReader;
+    private final long windowNanos;
+    private final int batchSize;
+
+    // The transaction manager is absent when the in-memory store is active
+    public ProductPriceFeedService(ProductRepository productRepository, ProductCache productCache,
+            ProductChangeRepository changeRepository, @Nullable PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${product.prices.window:PT0.1S}") Duration window,
+            @Value("${product.prices.batch-size:1000}") int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("product.prices.batch-size must be positive");
+        }
+        this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.changeRepository = changeRepository;
+        this.transactionTemplate = transactionManager == null ? null : new TransactionTemplate(transactionManager);
+        this.updateReader = objectMapper.readerFor(PriceUpdate.class);
+        this.windowNanos = window.toNanos();
+        this.batchSize = batchSize;
+    }
+
+    // Accepts newline-delimited objects or a JSON array. A window is closed when it holds batchSize
+    // products or when an update arrives after the window has run out, and at the end of the stream.
+    // Windows already written stay written if the stream turns out to be malformed later on.
+    public PriceFeedResult apply(InputStream updates) throws IOException {
+        Feed feed = new Feed();
+        try (MappingIterator<PriceUpdate> iterator = updateReader.readValues(updates)) {
+            while (iterator.hasNextValue()) {
+                feed.add(iterator.nextValue());
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed price update after " + feed.received + " updates ("
+                    + feed.applied + " applied): " + e.getOriginalMessage());
+        }
+        feed.flush();
+        return new PriceFeedResult(feed.received, feed.applied, feed.coalesced, feed.skipped, feed.rejected,
+                feed.batches);
+    }
+
+    private class Feed {
+        private final Map<Long, Double> pending = new HashMap<>();
+        private long windowStart = System.nanoTime();
+        private long received;
+        private long applied;
+        private long coalesced;
+        private long skipped;
+        private long rejected;
+        private int batches;
+
+        void add(PriceUpdate update) {
+            received++;
+            Double price = update.getPrice();
+            if (update.getId() == null || price == null || !Double.isFinite(price) || price < 0) {
+                rejected++;
+                return;
+            }
+            if (pending.isEmpty()) {
+                windowStart = System.nanoTime();
+            }
+            if (pending.put(update.getId(), price) != null) {
+                coalesced++;
+            }
+            if (pending.size() >= batchSize || System.nanoTime() - windowStart >= windowNanos) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            long[] ids = pending.keySet().stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(ids);
+            double[] prices = new double[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                prices[i] = pending.get(ids[i]);
+            }
+            pending.clear();
+            int[] counts = transactionTemplate == null
+                    ? write(ids, prices)
+                    : transactionTemplate.execute(status -> write(ids, prices));
+            batches++;
+            for (int i = 0; i < ids.length; i++) {
+                if (counts[i] == 0) {
+                    skipped++;
+                } else {
+                    applied++;
+                    productCache.evict(ids[i]);
+                }
+            }
+        }
+
+        private int[] write(long[] ids, double[] prices) {
+            LocalDateTime now = LocalDateTime.now();
+            int[] counts = productRepository.updatePrices(ids, prices, now);
+            List<Long> changed = new ArrayList<>();
+            for (int i = 0; i < ids.length; i++) {
+                if (counts[i] != 0) {
+                    changed.add(ids[i]);
+                }
+            }
+            changeRepository.appendSnapshots(ProductChange.Type.UPDATED, changed, now);
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.product.service;
+
+import com.example.product.repository.ProductRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Hard-deletes products that have been soft-deleted for longer than the retention window.
+// Each batch is its own short transaction, so the job never holds many row locks at once.
+@Service
+@Profile("!reactive")
+@ConditionalOnProperty(name = "product.purge.enabled", havingValue = "true", matchIfMissing = true)
+public class ProductPurgeService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductPurgeService.class);
+
+    private final ProductRepository productRepository;
+    private final Duration retention;
+    private final int batchSize;
+
+    public ProductPurgeService(ProductRepository productRepository,
+            @Value("${product.purge.retention:P30D}") Duration retention,
+            @Value("${product.purge.batch-size:500}") int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("product.purge.batch-size must be positive");
+        }
+        this.productRepository = productRepository;
+        this.retention = retention;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${product.purge.interval:PT1H}", fixedDelayString = "${product.purge.interval:PT1H}")
+    public int purge() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        int total = 0;
+        int deleted;
+        do {
+            deleted = productRepository.purgeDeletedBefore(cutoff, batchSize);
+            total += deleted;
+        } while (deleted == batchSize);
+
+        if (total > 0) {
+            log.info("Purged {} products soft-deleted before {}", total, cutoff);
+        }
+        return total;
+    }
+}
@@ -1,49 +1,188 @@
 package com.example.product.service;
 
+import com.example.product.cache.ProductCache;
+import com.example.product.dto.ProductPage;
+import com.example.product.dto.ProductPatch;
+import com.example.product.dto.SearchMode;
 import com.example.product.model.Product;
+import com.example.product.model.ProductChange;
+import com.example.product.repository.ProductChangeRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import com.example.product.repository.ProductRepository;
 
 import jakarta.transaction.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
+@Timed("product.service")
+@Profile("!reactive")
 public class ProductService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int DEFAULT_SEARCH_LIMIT = 20;
+    // Trigrams need three characters before the substring index can narrow anything down
+    public static final int MIN_SUBSTRING_LENGTH = 3;
+
     private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final ProductChangeRepository changeRepository;
 
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, ProductCache productCache,
+            ProductChangeRepository changeRepository) {
         this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.changeRepository = changeRepository;
     }
 
     public List<Product> getAllProducts() {
-        return productRepository.findAll()
-                .stream()
-                .filter(product -> !product.isDeleted())
-                .collect(Collectors.toList());
+        return productRepository.findByDeletedAtIsNull();
+    }
+
+    public ProductPage getProductPage(String cursor, int size, String namePrefix, Double minPrice, Double maxPrice) {
+        long afterId = ProductPage.decodeCursor(cursor);
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        // Fetch one extra row to find out whether another page follows without a count query
+        List<Product> rows = productRepository
+                .findByDeletedAtIsNullAndIdGreaterThanAndNameStartingWithAndPriceBetweenOrderByIdAsc(
+                        afterId,
+                        namePrefix == null ? "" : namePrefix,
+                        minPrice == null ? -Double.MAX_VALUE : minPrice,
+                        maxPrice == null ? Double.MAX_VALUE : maxPrice,
+                        Limit.of(pageSize + 1));
+
+        if (rows.size() <= pageSize) {
+            return new ProductPage(rows, null);
+        }
+        List<Product> products = rows.subList(0, pageSize);
+        return new ProductPage(products, ProductPage.encodeCursor(products.get(pageSize - 1).getId()));
+    }
+
+    public List<Product> search(String query, SearchMode mode, int limit) {
+        String trimmed = query == null ? "" : query.trim();
+        if (trimmed.isEmpty()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        int max = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        String lower = trimmed.toLowerCase(Locale.ROOT);
+
+        switch (mode) {
+            case PREFIX:
+                return productRepository.searchByNamePrefix(escapeLike(lower) + "%", max);
+            case SUBSTRING:
+                if (trimmed.length() < MIN_SUBSTRING_LENGTH) {
+                    throw new IllegalArgumentException(
+                            "Substring search needs at least " + MIN_SUBSTRING_LENGTH + " characters");
+                }
+                return productRepository.searchByNameSubstring("%" + escapeLike(lower) + "%", max);
+            case FULLTEXT:
+                return productRepository.searchByNameFullText(trimmed, max);
+            default:
+                throw new IllegalArgumentException("Unsupported search mode " + mode);
+        }
+    }
+
+    // Moves with every product write: the newest seq the relay has published from the outbox,
+    // at most a relay interval behind the last commit. seq is unique, so this is one index probe
+    // however large the catalog grows.
+    public long getCatalogSeq() {
+        Long maxSeq = changeRepository.findMaxSeq();
+        return maxSeq == null ? 0 : maxSeq;
     }
 
+    // The stamp is taken before the load, so a row read just before a write commits is not cached
+    // once that write's eviction has run
     public Optional<Product> findById(long id) {
-        return productRepository.findAll()
-                .stream()
-                .filter(product -> product.getId() == id && !product.isDeleted())
-                .findFirst();
+        Optional<Product> cached = productCache.getById(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        long stamp = productCache.stamp();
+        Optional<Product> product = productRepository.findByIdAndDeletedAtIsNull(id);
+        product.ifPresent(p -> productCache.put(p, stamp));
+        return product;
     }
 
+    public Optional<Product> findByName(String name) {
+        Optional<Product> cached = productCache.getByName(name);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        long stamp = productCache.stamp();
+        Optional<Product> product = productRepository.findByName(name).filter(p -> !p.isDeleted());
+        product.ifPresent(p -> productCache.put(p, stamp));
+        return product;
+    }
+
+    // Every write below appends its change to the outbox in the same transaction, after the product
+    // row has been written (and so locked), which keeps the outbox in commit order per product
+    @Transactional
     public Product save(Product product) {
-        return productRepository.save(product);
+        boolean created = product.getId() == 0;
+        if (created) {
+            product.setVersion(null);
+        }
+        Product savedProduct = productRepository.save(product);
+        productRepository.flush();
+        record(created ? ProductChange.Type.CREATED : ProductChange.Type.UPDATED, savedProduct);
+        evict(savedProduct.getId());
+        return savedProduct;
     }
 
+    @Transactional
     public Product updateProduct(Long id, Product newProductData) {
-        return productRepository.findById(id).map(product -> {
-            product.setName(newProductData.getName());
-            product.setPrice(newProductData.getPrice());
-            return productRepository.save(product);
-        }).orElseThrow(() -> new RuntimeException("Product not found"));
+        return updateProduct(id, newProductData, newProductData.getVersion());
+    }
+
+    // A single conditional UPDATE; the extra read only happens when it matched nothing, to tell
+    // a missing product from a version conflict. A null expectedVersion means last writer wins.
+    @Transactional
+    public Product updateProduct(Long id, Product newProductData, Long expectedVersion) {
+        Optional<Product> updatedProduct = productRepository.updateLive(id, expectedVersion,
+                newProductData.getName(), newProductData.getPrice(), LocalDateTime.now());
+        evict(id);
+        if (updatedProduct.isPresent()) {
+            record(ProductChange.Type.UPDATED, updatedProduct.get());
+            return updatedProduct.get();
+        }
+        if (expectedVersion != null && productRepository.findByIdAndDeletedAtIsNull(id).isPresent()) {
+            throw new ObjectOptimisticLockingFailureException(Product.class, id);
+        }
+        throw new ProductNotFoundException();
+    }
+
+    // Only the patched columns are compared, and nothing is written, or evicted, when they already
+    // hold the patched values. That case, like a miss, costs one extra read to find out which it was.
+    @Transactional
+    public Product patchProduct(Long id, ProductPatch patch, Long expectedVersion) {
+        Optional<Product> patchedProduct = Optional.empty();
+        if (!patch.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            patchedProduct = patch.getName() == null
+                    ? productRepository.patchPrice(id, expectedVersion, patch.getPrice(), now)
+                    : productRepository.patchLive(id, expectedVersion, patch.getName(), patch.getPrice(), now);
+        }
+        if (patchedProduct.isPresent()) {
+            record(ProductChange.Type.UPDATED, patchedProduct.get());
+            evict(id);
+            return patchedProduct.get();
+        }
+        Product current = productRepository.findByIdAndDeletedAtIsNull(id).orElseThrow(ProductNotFoundException::new);
+        if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Product.class, id);
+        }
+        return current;
     }
 
     @Transactional
@@ -51,34 +190,45 @@ public class ProductService {
         productRepository.findById(id).ifPresent(product -> {
             product.setDeletedAt(LocalDateTime.now());
             productRepository.save(product);
+            productRepository.flush();
+            record(ProductChange.Type.DELETED, product);
         });
+        evict(id);
     }
 
-    public void hardDelete(Long id) {
-        productRepository.deleteById(id);
+    // Removes the row whether or not it was soft-deleted first, and says whether there was one.
+    // Purging an already soft-deleted product was announced when it was deleted, so only a live
+    // product going away is recorded.
+    @Transactional
+    public boolean hardDelete(Long id) {
+        Optional<Product> live = productRepository.findByIdAndDeletedAtIsNull(id);
+        boolean deleted = productRepository.hardDeleteById(id) > 0;
+        if (deleted) {
+            live.ifPresent(product -> record(ProductChange.Type.DELETED, product));
+        }
+        evict(id);
+        return deleted;
     }
 
-    // ================ Component ===================
-
-    // private final ProductComponent productComponent;
-
-    // public ProductService(ProductComponent productComponent) {
-    // this.productComponent = productComponent;
-    // }
-
-    // public List<Product> getAllProducts() {
-    // return productComponent.getProducts();
-    // }
-
-    // public Optional<Product> findById(long id) {
-    // return productComponent.findById(id);
-    // }
+    private void record(ProductChange.Type type, Product product) {
+        changeRepository.save(new ProductChange(type, product, LocalDateTime.now()));
+    }
 
-    // public Product save(Product product) {
-    // return productComponent.save(product);
-    // }
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
 
-    // public void addProduct(Product product) {
-    // productComponent.addProduct(product);
-    // }
-}
\ No newline at end of file
+    // Evict now, and again once the surrounding transaction commits; a read that loaded the
+    // pre-commit row before then has an older stamp, so its put is dropped
+    private void evict(long id) {
+        productCache.evict(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    productCache.evict(id);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,7 @@
+-- Hibernate allocates ids in blocks of 50 from this sequence so inserts can be batched.
+-- A table created by the earlier IDENTITY mapping hides the sequence in its identity column,
+-- where Hibernate's schema tools do not see it, so that becomes a plain sequence first.
+ALTER TABLE products ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS products_id_seq;
+ALTER SEQUENCE products_id_seq INCREMENT BY 50;
+SELECT setval('products_id_seq', COALESCE((SELECT MAX(id) FROM products), 1));
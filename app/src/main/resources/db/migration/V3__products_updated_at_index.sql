@@ -0,0 +1,2 @@
+-- Lets the catalog version (MAX(updated_at), COUNT(*)) behind list ETags be answered from the index
+CREATE INDEX IF NOT EXISTS products_updated_at_idx ON products (updated_at);
@@ -0,0 +1,6 @@
+-- Product carries @SQLRestriction("deleted_at IS NULL"), so every entity query only ever
+-- touches live rows. Index just those, and keep the soft-deleted ones in a separate index
+-- for the purge job.
+CREATE INDEX IF NOT EXISTS products_live_id_idx ON products (id) WHERE deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS products_live_name_idx ON products (name text_pattern_ops) WHERE deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS products_deleted_at_idx ON products (deleted_at) WHERE deleted_at IS NOT NULL;
@@ -0,0 +1,9 @@
+-- Indexes behind GET /api/products/search, live rows only.
+-- prefix:    btree on lower(name) in C collation, serves both the LIKE 'abc%' range and the ORDER BY
+-- substring: trigram GIN, serves LIKE '%abc%'
+-- fulltext:  GIN over the english tsvector, serves @@ websearch_to_tsquery(...)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS products_live_name_lower_idx ON products ((lower(name) COLLATE "C")) WHERE deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS products_live_name_trgm_idx ON products USING gin (lower(name) gin_trgm_ops) WHERE deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS products_live_name_tsv_idx ON products USING gin (to_tsvector('english', name)) WHERE deleted_at IS NULL;
@@ -0,0 +1,2 @@
+-- Optimistic locking: every write bumps the version, conditional updates compare it
+ALTER TABLE products ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,16 @@
+-- Transactional outbox for product writes. Rows are inserted unnumbered in the writing
+-- transaction; the relay assigns seq in order, and seq is what change feed clients resume from.
+CREATE TABLE IF NOT EXISTS product_changes (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    seq BIGINT UNIQUE,
+    product_id BIGINT NOT NULL,
+    type VARCHAR(16) NOT NULL,
+    name VARCHAR(255),
+    price DOUBLE PRECISION,
+    version BIGINT,
+    occurred_at TIMESTAMP NOT NULL,
+    published_at TIMESTAMP
+);
+
+-- The relay's backlog scan only ever touches unpublished rows
+CREATE INDEX IF NOT EXISTS product_changes_unpublished_idx ON product_changes (id) WHERE seq IS NULL;
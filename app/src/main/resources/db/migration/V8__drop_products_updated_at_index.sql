@@ -0,0 +1,2 @@
+-- List ETags are versioned by the outbox seq now; nothing reads products by updated_at any more
+DROP INDEX IF EXISTS products_updated_at_idx;
@@ -0,0 +1,30 @@
+package com.example.product;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.product.component.ProductComponent;
+import com.example.product.repository.ProductRepository;
+import com.example.product.service.ProductService;
+
+@SpringBootTest
+@ActiveProfiles("inmemory")
+class ProductAppInMemoryTests {
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private ProductService productService;
+
+	@Test
+	void contextLoadsWithoutDatabase() {
+		assertInstanceOf(ProductComponent.class, productRepository);
+		assertEquals("Laptop", productService.findById(1L).get().getName());
+	}
+
+}
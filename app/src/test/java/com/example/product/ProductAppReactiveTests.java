@@ -0,0 +1,27 @@
+package com.example.product;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.product.controller.ProductController;
+import com.example.product.reactive.ReactiveProductController;
+
+@SpringBootTest
+@ActiveProfiles("reactive")
+class ProductAppReactiveTests {
+
+	@Autowired
+	private ApplicationContext context;
+
+	@Test
+	void contextLoadsWithReactiveStack() {
+		assertEquals(1, context.getBeansOfType(ReactiveProductController.class).size());
+		assertTrue(context.getBeansOfType(ProductController.class).isEmpty());
+	}
+
+}
@@ -0,0 +1,144 @@
+package com.example.product.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.product.model.Product;
+
+class InMemoryProductCacheTest {
+
+  private MutableClock clock;
+  private InMemoryProductCache cache;
+
+  @BeforeEach
+  void setUp() {
+    clock = new MutableClock();
+    cache = new InMemoryProductCache(2, Duration.ofSeconds(10), clock);
+  }
+
+  @Test
+  void testGetByIdAndName() {
+    cache.put(new Product(1, "Laptop", 1500.0), cache.stamp());
+
+    assertEquals("Laptop", cache.getById(1).get().getName());
+    assertEquals(1, cache.getByName("Laptop").get().getId());
+    assertFalse(cache.getById(2).isPresent());
+    assertFalse(cache.getByName("Tablet").isPresent());
+
+    ProductCacheStats stats = cache.stats();
+    assertEquals(2, stats.getHits());
+    assertEquals(2, stats.getMisses());
+    assertEquals(0.5, stats.getHitRate());
+  }
+
+  @Test
+  void testEvictInvalidatesNameLookup() {
+    cache.put(new Product(1, "Laptop", 1500.0), cache.stamp());
+
+    cache.evict(1);
+
+    assertFalse(cache.getById(1).isPresent());
+    assertFalse(cache.getByName("Laptop").isPresent());
+  }
+
+  @Test
+  void testRenameDropsOldName() {
+    cache.put(new Product(1, "Laptop", 1500.0), cache.stamp());
+    cache.put(new Product(1, "Notebook", 1500.0), cache.stamp());
+
+    assertFalse(cache.getByName("Laptop").isPresent());
+    assertEquals(1, cache.getByName("Notebook").get().getId());
+  }
+
+  @Test
+  void testPutWithStampOlderThanEvictionDropped() {
+    long stamp = cache.stamp();
+    cache.evict(1);
+
+    cache.put(new Product(1, "Laptop", 1500.0), stamp);
+    cache.put(new Product(2, "Tablet", 500.0), stamp);
+
+    assertFalse(cache.getById(1).isPresent());
+    assertTrue(cache.getById(2).isPresent());
+    cache.put(new Product(1, "Laptop", 1600.0), cache.stamp());
+    assertEquals(1600.0, cache.getById(1).get().getPrice());
+  }
+
+  @Test
+  void testEntriesAreDetachedCopies() {
+    Product product = new Product(1, "Laptop", 1500.0);
+    cache.put(product, cache.stamp());
+
+    product.setPrice(1.0);
+    cache.getById(1).get().setName("Changed");
+
+    assertEquals(1500.0, cache.getById(1).get().getPrice());
+    assertEquals("Laptop", cache.getByName("Laptop").get().getName());
+  }
+
+  @Test
+  void testLeastRecentlyUsedEvictedWhenFull() {
+    cache.put(new Product(1, "Laptop", 1500.0), cache.stamp());
+    cache.put(new Product(2, "Smartphone", 800.0), cache.stamp());
+    cache.getById(1);
+    cache.put(new Product(3, "Tablet", 500.0), cache.stamp());
+
+    assertTrue(cache.getById(1).isPresent());
+    assertFalse(cache.getById(2).isPresent());
+    assertFalse(cache.getByName("Smartphone").isPresent());
+    assertTrue(cache.getById(3).isPresent());
+    assertEquals(1, cache.stats().getEvictions());
+    assertEquals(2, cache.stats().getSize());
+  }
+
+  @Test
+  void testEntriesExpireAfterTtl() {
+    cache.put(new Product(1, "Laptop", 1500.0), cache.stamp());
+
+    clock.advance(Duration.ofSeconds(11));
+
+    assertFalse(cache.getById(1).isPresent());
+    assertFalse(cache.getByName("Laptop").isPresent());
+    assertEquals(0, cache.stats().getSize());
+  }
+
+  @Test
+  void testDeletedProductNotCached() {
+    Product product = new Product(1, "Laptop", 1500.0);
+    product.setDeletedAt(java.time.LocalDateTime.now());
+
+    cache.put(product, cache.stamp());
+
+    assertFalse(cache.getById(1).isPresent());
+  }
+
+  private static class MutableClock extends Clock {
+    private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneOffset getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(java.time.ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
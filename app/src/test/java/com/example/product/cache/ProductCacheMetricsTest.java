@@ -0,0 +1,32 @@
+package com.example.product.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.product.model.Product;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ProductCacheMetricsTest {
+
+  @Test
+  void testBindsCacheStats() {
+    InMemoryProductCache cache = new InMemoryProductCache(1, Duration.ofMinutes(5), Clock.systemUTC());
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    new ProductCacheMetrics(cache).bindTo(registry);
+
+    cache.put(new Product(1, "Laptop", 1500.0), cache.stamp());
+    cache.put(new Product(2, "Tablet", 500.0), cache.stamp());
+    cache.getById(2);
+    cache.getById(1);
+
+    assertEquals(1.0, registry.get("product.cache.gets").tag("result", "hit").functionCounter().count());
+    assertEquals(1.0, registry.get("product.cache.gets").tag("result", "miss").functionCounter().count());
+    assertEquals(1.0, registry.get("product.cache.evictions").functionCounter().count());
+    assertEquals(1.0, registry.get("product.cache.size").gauge().value());
+  }
+}
@@ -0,0 +1,274 @@
+package com.example.product.component;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import com.example.product.model.Product;
+
+class ProductComponentTest {
+
+  private ProductComponent productComponent;
+
+  @BeforeEach
+  void setUp() {
+    productComponent = new ProductComponent();
+  }
+
+  @Test
+  void testSeededProducts() {
+    List<Product> products = productComponent.getProducts();
+
+    assertEquals(3, products.size());
+    assertEquals("Laptop", productComponent.findById(1L).get().getName());
+    assertEquals(3L, productComponent.findByName("Tablet").get().getId());
+  }
+
+  @Test
+  void testSaveAssignsIdAndTimestamps() {
+    Product saved = productComponent.save(new Product(0, "Monitor", 300.0));
+
+    assertEquals(4L, saved.getId());
+    assertNotNull(saved.getCreatedAt());
+    assertNotNull(saved.getUpdatedAt());
+    assertEquals("Monitor", productComponent.findByIdAndDeletedAtIsNull(4L).get().getName());
+  }
+
+  @Test
+  void testDuplicateNameRejected() {
+    assertThrows(DataIntegrityViolationException.class,
+        () -> productComponent.save(new Product(0, "Laptop", 1.0)));
+    assertEquals(3, productComponent.count());
+  }
+
+  @Test
+  void testReturnedProductsAreCopies() {
+    Product laptop = productComponent.findById(1L).get();
+    laptop.setName("Changed");
+
+    assertEquals("Laptop", productComponent.findById(1L).get().getName());
+  }
+
+  @Test
+  void testRenameMovesNameIndex() {
+    Product laptop = productComponent.findById(1L).get();
+    laptop.setName("Notebook");
+    productComponent.save(laptop);
+
+    assertFalse(productComponent.findByName("Laptop").isPresent());
+    assertEquals(1L, productComponent.findByName("Notebook").get().getId());
+    productComponent.save(new Product(0, "Laptop", 1.0));
+  }
+
+  @Test
+  void testRenameToTakenNameRejected() {
+    Product laptop = productComponent.findById(1L).get();
+    laptop.setName("Tablet");
+
+    assertThrows(DataIntegrityViolationException.class, () -> productComponent.save(laptop));
+    assertEquals("Laptop", productComponent.findById(1L).get().getName());
+  }
+
+  @Test
+  void testSaveBumpsVersionAndRejectsStaleCopies() {
+    Product first = productComponent.findById(1L).get();
+    Product second = productComponent.findById(1L).get();
+    assertEquals(0L, first.getVersion());
+
+    first.setPrice(1.0);
+    assertEquals(1L, productComponent.save(first).getVersion());
+
+    second.setPrice(2.0);
+    assertThrows(ObjectOptimisticLockingFailureException.class, () -> productComponent.save(second));
+    assertEquals(1.0, productComponent.findById(1L).get().getPrice());
+  }
+
+  @Test
+  void testUpdateLive() {
+    LocalDateTime now = LocalDateTime.now();
+
+    Product updated = productComponent.updateLive(1L, 0L, "Notebook", 10.0, now).get();
+    assertEquals(1L, updated.getVersion());
+    assertEquals("Notebook", productComponent.findById(1L).get().getName());
+
+    assertFalse(productComponent.updateLive(1L, 0L, "Stale", 1.0, now).isPresent());
+    assertEquals(2L, productComponent.updateLive(1L, null, "Blind", 1.0, now).get().getVersion());
+    assertFalse(productComponent.updateLive(99L, null, "Missing", 1.0, now).isPresent());
+  }
+
+  @Test
+  void testPatchOnlyWritesChanges() {
+    LocalDateTime now = LocalDateTime.now();
+
+    assertFalse(productComponent.patchPrice(1L, null, 1500.0, now).isPresent());
+    assertFalse(productComponent.patchLive(1L, 0L, "Laptop", null, now).isPresent());
+    assertEquals(0L, productComponent.findById(1L).get().getVersion());
+
+    Product patched = productComponent.patchPrice(1L, 0L, 1400.0, now).get();
+    assertEquals("Laptop", patched.getName());
+    assertEquals(1400.0, patched.getPrice());
+    assertEquals(1L, patched.getVersion());
+    assertEquals(1400.0, productComponent.patchLive(1L, null, "Notebook", null, now).get().getPrice());
+  }
+
+  @Test
+  void testUpdatePrices() {
+    int[] counts = productComponent.updatePrices(new long[] { 1, 2, 99 }, new double[] { 1500.0, 10.0, 1.0 },
+        LocalDateTime.now());
+
+    assertArrayEquals(new int[] { 0, 1, 0 }, counts);
+    assertEquals(10.0, productComponent.findById(2L).get().getPrice());
+  }
+
+  @Test
+  void testSoftDeletedProductsHidden() {
+    Product laptop = productComponent.findById(1L).get();
+    laptop.setDeletedAt(LocalDateTime.now());
+    productComponent.save(laptop);
+
+    assertFalse(productComponent.findByIdAndDeletedAtIsNull(1L).isPresent());
+    assertFalse(productComponent.findById(Long.valueOf(1)).isPresent());
+    assertFalse(productComponent.findByName("Laptop").isPresent());
+    assertTrue(productComponent.findById(1L).isPresent());
+    assertEquals(2, productComponent.findByDeletedAtIsNull().size());
+    assertEquals(2, productComponent.streamAllLive().count());
+  }
+
+  @Test
+  void testPurgeDeletedBefore() {
+    LocalDateTime now = LocalDateTime.now();
+    Product laptop = productComponent.findById(1L).get();
+    laptop.setDeletedAt(now.minusDays(40));
+    productComponent.save(laptop);
+    Product tablet = productComponent.findById(3L).get();
+    tablet.setDeletedAt(now.minusDays(1));
+    productComponent.save(tablet);
+
+    assertEquals(1, productComponent.purgeDeletedBefore(now.minusDays(30), 10));
+    assertFalse(productComponent.findById(1L).isPresent());
+    assertFalse(productComponent.findByName("Laptop").isPresent());
+    assertTrue(productComponent.findById(3L).isPresent());
+    assertEquals(0, productComponent.purgeDeletedBefore(now.minusDays(30), 10));
+  }
+
+  @Test
+  void testSearch() {
+    productComponent.save(new Product(0, "Gaming Laptop Pro", 2500.0));
+    productComponent.save(new Product(0, "100% Cotton_Shirt", 20.0));
+
+    assertEquals(List.of("Laptop"), names(productComponent.searchByNamePrefix("lap%", 10)));
+    assertEquals(List.of("Laptop", "Gaming Laptop Pro"), names(productComponent.searchByNameSubstring("%laptop%", 10)));
+    assertEquals(List.of("100% Cotton_Shirt"), names(productComponent.searchByNameSubstring("%0\\%%", 10)));
+    assertTrue(productComponent.searchByNameSubstring("%laptop\\_%", 10).isEmpty());
+    assertEquals(1, productComponent.searchByNameSubstring("%laptop_%", 10).size());
+    assertEquals(List.of("Laptop", "Gaming Laptop Pro"), names(productComponent.searchByNameFullText("laptop", 10)));
+    assertEquals(List.of("Gaming Laptop Pro"), names(productComponent.searchByNameFullText("PRO laptop", 10)));
+    assertTrue(productComponent.searchByNameFullText("--", 10).isEmpty());
+  }
+
+  private static List<String> names(List<Product> products) {
+    return products.stream().map(Product::getName).toList();
+  }
+
+  @Test
+  void testKeysetPage() {
+    List<Product> page = productComponent
+        .findByDeletedAtIsNullAndIdGreaterThanAndNameStartingWithAndPriceBetweenOrderByIdAsc(
+            1L, "", 0, 1000.0, Limit.of(1));
+
+    assertEquals(1, page.size());
+    assertEquals("Smartphone", page.get(0).getName());
+  }
+
+  @Test
+  void testSaveAllIsAllOrNothingOnDuplicateName() {
+    List<Product> batch = List.of(new Product(0, "Monitor", 1.0), new Product(0, "Tablet", 2.0));
+
+    assertThrows(DataIntegrityViolationException.class, () -> productComponent.saveAll(batch));
+    assertFalse(productComponent.findByName("Monitor").isPresent());
+  }
+
+  @Test
+  void testConcurrentSaves() throws Exception {
+    int threads = 8;
+    int perThread = 500;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    Set<Long> ids = ConcurrentHashMap.newKeySet();
+    for (int t = 0; t < threads; t++) {
+      int thread = t;
+      executor.submit(() -> {
+        start.await();
+        for (int i = 0; i < perThread; i++) {
+          ids.add(productComponent.save(new Product(0, "Product " + thread + "-" + i, i)).getId());
+        }
+        return null;
+      });
+    }
+    start.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+    assertEquals(threads * perThread, ids.size());
+    assertEquals(3 + threads * perThread, productComponent.count());
+    Set<String> names = productComponent.findAll().stream().map(Product::getName).collect(Collectors.toSet());
+    assertEquals(3 + threads * perThread, names.size());
+  }
+
+  // Two writers rename each product in turn and race each other for the same names; every name
+  // the index still holds has to lead back to the product that carries it
+  @Test
+  void testConcurrentRenames() throws Exception {
+    int threads = 4;
+    int perThread = 500;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    LongAdder duplicates = new LongAdder();
+    for (int t = 0; t < threads; t++) {
+      long id = t % 2 + 1;
+      executor.submit(() -> {
+        start.await();
+        for (int i = 0; i < perThread; i++) {
+          try {
+            productComponent.updateLive(id, null, "Renamed " + i % 50, i, LocalDateTime.now());
+          } catch (DataIntegrityViolationException e) {
+            duplicates.increment();
+          }
+        }
+        return null;
+      });
+    }
+    start.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+    Product first = productComponent.findById(1L).get();
+    Product second = productComponent.findById(2L).get();
+    assertEquals(1L, productComponent.findByName(first.getName()).get().getId());
+    assertEquals(2L, productComponent.findByName(second.getName()).get().getId());
+    for (int i = 0; i < 50; i++) {
+      String name = "Renamed " + i;
+      if (!name.equals(first.getName()) && !name.equals(second.getName())) {
+        assertFalse(productComponent.findByName(name).isPresent(), name);
+        productComponent.save(new Product(0, name, 1.0));
+      }
+    }
+    assertTrue(duplicates.sum() > 0);
+    assertEquals(threads * perThread - duplicates.sum(), first.getVersion() + second.getVersion());
+  }
+}
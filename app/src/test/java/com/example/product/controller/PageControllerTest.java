@@ -3,16 +3,21 @@ package com.example.product.controller;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.example.product.dto.ProductPage;
 import com.example.product.model.Product;
 import com.example.product.service.ProductService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.ui.ExtendedModelMap;
 import org.springframework.ui.Model;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.time.Duration;
 import java.util.List;
 
 @ExtendWith(MockitoExtension.class)
@@ -22,28 +27,65 @@ class PageControllerTest {
   private ProductService productService;
 
   @Mock
-  private Model model;
+  private ProductRowFragments rowFragments;
 
-  @InjectMocks
   private PageController pageController;
 
   @BeforeEach
   void setUp() {
+    pageController = new PageController(productService, rowFragments, Duration.ofSeconds(10));
   }
 
   @Test
   void testShowProducts() {
     // Arrange
-    when(productService.getAllProducts()).thenReturn(List.of(
-        new Product(1, "Product 1", 100.0),
-        new Product(2, "Product 2", 200.0)));
+    List<Product> products = List.of(new Product(1, "Product 1", 100.0), new Product(2, "Product 2", 200.0));
+    when(productService.getCatalogSeq()).thenReturn(7L);
+    when(productService.getProductPage(null, 2, null, null, null))
+        .thenReturn(new ProductPage(products, ProductPage.encodeCursor(2)));
+    when(rowFragments.render(products)).thenReturn(List.of("<tr>1</tr>", "<tr>2</tr>"));
+    Model model = new ExtendedModelMap();
+    MockHttpServletResponse response = new MockHttpServletResponse();
 
     // Act
-    String viewName = pageController.showProducts(model);
+    String viewName = pageController.showProducts(null, 2, model,
+        new ServletWebRequest(new MockHttpServletRequest("GET", "/"), response), response);
 
     // Assert
     assertEquals("product", viewName);
-    verify(model, times(1)).addAttribute("products", productService.getAllProducts());
+    assertEquals(List.of("<tr>1</tr>", "<tr>2</tr>"), model.getAttribute("rows"));
+    assertEquals(ProductPage.encodeCursor(2), model.getAttribute("next"));
+    assertEquals("max-age=10, public", response.getHeader("Cache-Control"));
+    assertNotNull(response.getHeader("ETag"));
+  }
+
+  @Test
+  void testShowProductsNotModified() {
+    when(productService.getCatalogSeq()).thenReturn(7L);
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+    request.addHeader("If-None-Match", ProductETags.ofList(7L, "page", null, 20));
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    String viewName = pageController.showProducts(null, 20, new ExtendedModelMap(),
+        new ServletWebRequest(request, response), response);
+
+    // Nothing is read or rendered for a revalidation that still matches
+    assertNull(viewName);
+    assertEquals(304, response.getStatus());
+    assertEquals("max-age=10, public", response.getHeader("Cache-Control"));
+    verify(productService, never()).getProductPage(any(), anyInt(), any(), any(), any());
+    verifyNoInteractions(rowFragments);
+  }
+
+  @Test
+  void testShowProductsBadCursor() {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    String viewName = pageController.showProducts("not-a-cursor", 20, new ExtendedModelMap(),
+        new ServletWebRequest(new MockHttpServletRequest(), response), response);
+
+    assertEquals("redirect:/", viewName);
+    verifyNoInteractions(productService);
   }
 
   @Test
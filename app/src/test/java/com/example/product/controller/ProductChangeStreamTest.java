@@ -0,0 +1,175 @@
+package com.example.product.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.product.cache.NoOpProductCache;
+import com.example.product.component.ProductChangeComponent;
+import com.example.product.component.ProductComponent;
+import com.example.product.model.Product;
+import com.example.product.service.ProductChangeFeed;
+import com.example.product.service.ProductChangeRelay;
+import com.example.product.service.ProductChangesExpiredException;
+import com.example.product.service.ProductService;
+
+// Drives the stream through MockMvc so events are written to a real (mock) servlet response
+class ProductChangeStreamTest {
+
+  private ProductService productService;
+  private ProductChangeRelay relay;
+  private ProductChangeFeed changeFeed;
+  private ProductChangeStream stream;
+  private MockMvc mockMvc;
+
+  @RestController
+  static class StreamController {
+    private final ProductChangeStream stream;
+
+    StreamController(ProductChangeStream stream) {
+      this.stream = stream;
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    SseEmitter stream(@RequestParam(required = false) Long since, @RequestParam(required = false) Set<Long> ids) {
+      return stream.subscribe(since, ids);
+    }
+  }
+
+  @BeforeEach
+  void setUp() {
+    ProductComponent productComponent = new ProductComponent();
+    ProductChangeComponent changeComponent = new ProductChangeComponent(productComponent);
+    productService = new ProductService(productComponent, new NoOpProductCache(), changeComponent);
+    changeFeed = new ProductChangeFeed(changeComponent, Duration.ofSeconds(5));
+    relay = new ProductChangeRelay(changeComponent, changeFeed, null, 500, Duration.ofDays(7));
+    relay.relay();
+    useStream(2, 20);
+  }
+
+  @AfterEach
+  void tearDown() {
+    stream.shutdown();
+  }
+
+  private void useStream(int bufferSize, int maxSubscribers) {
+    stream = new ProductChangeStream(changeFeed, bufferSize, Duration.ofMinutes(1), Duration.ofMillis(1),
+        maxSubscribers);
+    mockMvc = MockMvcBuilders.standaloneSetup(new StreamController(stream)).build();
+  }
+
+  private static void await(BooleanSupplier condition) throws InterruptedException {
+    for (int i = 0; i < 200 && !condition.getAsBoolean(); i++) {
+      Thread.sleep(10);
+    }
+    assertTrue(condition.getAsBoolean());
+  }
+
+  private static String content(MvcResult result) {
+    try {
+      return result.getResponse().getContentAsString();
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Test
+  void testReplayIsConflatedAndInSeqOrder() throws Exception {
+    // seq 1 and 3 are Laptop, seq 2 is Tablet
+    productService.updateProduct(1L, new Product(0, "Laptop", 1400.0), null);
+    productService.updateProduct(3L, new Product(0, "Tablet", 450.0), null);
+    productService.updateProduct(1L, new Product(0, "Laptop", 1300.0), null);
+    relay.relay();
+
+    MvcResult result = mockMvc.perform(get("/stream").param("since", "0"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    // An event's id line is written before its data, so wait for the data of the last one
+    await(() -> content(result).contains("\"price\":1300.0"));
+    String body = content(result);
+    assertFalse(body.contains("id:1\n"));
+    assertTrue(body.indexOf("id:2") < body.indexOf("id:3"));
+    assertTrue(body.contains("event:change"));
+  }
+
+  @Test
+  void testLiveChangesAreFilteredByProduct() throws Exception {
+    MvcResult result = mockMvc.perform(get("/stream").param("ids", "3"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    productService.updateProduct(1L, new Product(0, "Laptop", 1400.0), null);
+    productService.updateProduct(3L, new Product(0, "Tablet", 450.0), null);
+    relay.relay();
+
+    await(() -> content(result).contains("id:2"));
+    assertFalse(content(result).contains("\"productId\":1,"));
+  }
+
+  @Test
+  void testSubscriberFallingBehindIsClosed() throws Exception {
+    MvcResult result = mockMvc.perform(get("/stream"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    assertEquals(1, stream.subscribers());
+
+    // Three products in one batch against a buffer of two
+    for (long id = 1; id <= 3; id++) {
+      productService.updateProduct(id, new Product(0, "Product " + id, 1.0), null);
+    }
+    relay.relay();
+
+    assertEquals(0, stream.subscribers());
+    // The drain completes the response; getAsyncResult fails if that does not happen in time
+    result.getAsyncResult(2000);
+  }
+
+  @Test
+  void testReplayLargerThanBufferIsRefused() {
+    for (long id = 1; id <= 3; id++) {
+      productService.updateProduct(id, new Product(0, "Product " + id, 1.0), null);
+    }
+    relay.relay();
+
+    assertThrows(ProductChangesExpiredException.class, () -> stream.subscribe(0L, null));
+    assertEquals(0, stream.subscribers());
+  }
+
+  @Test
+  void testIdleSubscriberGetsHeartbeat() throws Exception {
+    MvcResult result = mockMvc.perform(get("/stream"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    Thread.sleep(5);
+
+    stream.heartbeat();
+
+    await(() -> content(result).contains(":heartbeat"));
+  }
+
+  @Test
+  void testSubscribersAreCapped() throws Exception {
+    useStream(2, 1);
+    mockMvc.perform(get("/stream")).andExpect(request().asyncStarted());
+
+    assertThrows(RejectedExecutionException.class, () -> stream.subscribe(null, null));
+  }
+}
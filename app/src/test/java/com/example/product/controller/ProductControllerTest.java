@@ -1,13 +1,24 @@
 package com.example.product.controller;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,15 +26,42 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 // import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 
+import com.example.product.config.WireFormatConfig;
+import com.example.product.dto.BulkItemResult;
+import com.example.product.dto.IngestStatus;
+import com.example.product.dto.PriceFeedResult;
+import com.example.product.dto.ProductPage;
+import com.example.product.dto.ProductPatch;
+import com.example.product.dto.SearchMode;
+import com.example.product.ingest.ProductIngestService;
 import com.example.product.model.Product;
+import com.example.product.model.ProductChange;
+import com.example.product.proto.ProductListResponse;
+import com.example.product.service.BulkWriteInterruptedException;
+import com.example.product.service.ProductBulkService;
+import com.example.product.service.ProductChangeFeed;
+import com.example.product.service.ProductChangesExpiredException;
+import com.example.product.service.ProductExportService;
+import com.example.product.service.ProductNotFoundException;
+import com.example.product.service.ProductPriceFeedService;
 import com.example.product.service.ProductService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 
 @ExtendWith(MockitoExtension.class)
 class ProductControllerTest {
@@ -33,6 +71,24 @@ class ProductControllerTest {
   @Mock
   private ProductService productService;
 
+  @Mock
+  private ProductExportService productExportService;
+
+  @Mock
+  private ProductBulkService productBulkService;
+
+  @Mock
+  private ProductIngestService productIngestService;
+
+  @Mock
+  private ProductPriceFeedService productPriceFeedService;
+
+  @Mock
+  private ProductChangeFeed productChangeFeed;
+
+  @Mock
+  private ProductChangeStream productChangeStream;
+
   @InjectMocks
   private ProductController productController;
 
@@ -47,7 +103,8 @@ class ProductControllerTest {
         new Product(1, "test 1", 1.55),
         new Product(2, "test 2", 90.2));
 
-    when(productService.getAllProducts()).thenReturn(mockProducts);
+    when(productService.getProductPage(isNull(), eq(ProductService.DEFAULT_PAGE_SIZE), isNull(), isNull(), isNull()))
+        .thenReturn(new ProductPage(mockProducts, null));
 
     mockMvc.perform(get("/api/products"))
         .andExpect(status().isOk())
@@ -57,10 +114,107 @@ class ProductControllerTest {
         .andExpect(jsonPath("$.data[1].id").value(2))
         .andExpect(jsonPath("$.data[1].name").value("test 2"))
         .andExpect(jsonPath("$.meta.status").value("OK"))
-        .andExpect(jsonPath("$.meta.message").value("Success"));
+        .andExpect(jsonPath("$.meta.message").value("Success"))
+        .andExpect(jsonPath("$.meta.next").doesNotExist());
     // .andDo(print());
 
-    verify(productService, times(1)).getAllProducts();
+    verify(productService, times(1)).getProductPage(null, ProductService.DEFAULT_PAGE_SIZE, null, null, null);
+  }
+
+  @Test
+  void testGetAllProductsNegotiatesWireFormat() throws Exception {
+    WireFormatConfig wireFormats = new WireFormatConfig();
+    List<HttpMessageConverter<?>> converters = new ArrayList<>(List.of(
+        new MappingJackson2HttpMessageConverter(Jackson2ObjectMapperBuilder.json().build()),
+        wireFormats.smileHttpMessageConverter(Jackson2ObjectMapperBuilder.json()),
+        wireFormats.cborHttpMessageConverter(Jackson2ObjectMapperBuilder.json())));
+    wireFormats.extendMessageConverters(converters);
+    MockMvc negotiating = MockMvcBuilders.standaloneSetup(productController)
+        .setMessageConverters(converters.toArray(HttpMessageConverter[]::new))
+        .build();
+    when(productService.getProductPage(isNull(), eq(ProductService.DEFAULT_PAGE_SIZE), isNull(), isNull(), isNull()))
+        .thenReturn(new ProductPage(List.of(new Product(1, "test 1", 1.55)), "next"));
+
+    negotiating.perform(get("/api/products").accept(MediaType.ALL))
+        .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+        .andExpect(jsonPath("$.data[0].name").value("test 1"));
+
+    byte[] cbor = negotiating.perform(get("/api/products").accept("application/cbor"))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType("application/cbor"))
+        .andReturn().getResponse().getContentAsByteArray();
+    JsonNode decoded = new CBORMapper().readTree(cbor);
+    assertEquals("test 1", decoded.at("/data/0/name").asText());
+    assertEquals("next", decoded.at("/meta/next").asText());
+
+    byte[] smile = negotiating.perform(get("/api/products").accept("application/x-jackson-smile"))
+        .andExpect(content().contentType("application/x-jackson-smile"))
+        .andReturn().getResponse().getContentAsByteArray();
+    assertEquals("OK", new SmileMapper().readTree(smile).at("/meta/status").asText());
+
+    byte[] protobuf = negotiating.perform(get("/api/products").accept("application/x-protobuf"))
+        .andExpect(content().contentType("application/x-protobuf"))
+        .andReturn().getResponse().getContentAsByteArray();
+    ProductListResponse list = ProductListResponse.parseFrom(protobuf);
+    assertEquals("test 1", list.getData(0).getName());
+    assertEquals("next", list.getMeta().getNext());
+
+    // Payloads without a Protobuf schema are not offered in it
+    when(productIngestService.status("abc")).thenReturn(Optional.empty());
+    negotiating.perform(get("/api/products/ingest/{trackingId}", "abc").accept("application/x-protobuf"))
+        .andExpect(status().isNotAcceptable());
+  }
+
+  @Test
+  void testGetAllProductsWithCursorAndFilters() throws Exception {
+    String cursor = ProductPage.encodeCursor(2);
+    String next = ProductPage.encodeCursor(3);
+
+    when(productService.getProductPage(cursor, 1, "te", 1.0, 100.0))
+        .thenReturn(new ProductPage(List.of(new Product(3, "test 3", 10.0)), next));
+
+    mockMvc.perform(get("/api/products")
+        .param("cursor", cursor)
+        .param("size", "1")
+        .param("name", "te")
+        .param("minPrice", "1.0")
+        .param("maxPrice", "100.0"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data.length()").value(1))
+        .andExpect(jsonPath("$.data[0].id").value(3))
+        .andExpect(jsonPath("$.meta.next").value(next));
+  }
+
+  @Test
+  void testGetAllProductsInvalidCursor() throws Exception {
+    mockMvc.perform(get("/api/products").param("cursor", "bogus"))
+        .andExpect(status().isBadRequest())
+        .andExpect(header().doesNotExist("ETag"))
+        .andExpect(jsonPath("$.meta.status").value("BAD_REQUEST"))
+        .andExpect(jsonPath("$.error.type").value("bad_request"))
+        .andExpect(jsonPath("$.error.detail").value("Invalid cursor bogus"));
+
+    verify(productService, never()).getProductPage(any(), anyInt(), any(), any(), any());
+  }
+
+  @Test
+  void testExportProducts() throws Exception {
+    when(productExportService.exportProducts(any())).thenAnswer(invocation -> {
+      invocation.<java.io.OutputStream>getArgument(0).write("{\"id\":1}\n{\"id\":2}\n".getBytes());
+      return 2L;
+    });
+
+    MvcResult result = mockMvc.perform(get("/api/products/export"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+        .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+
+    verify(productExportService, times(1)).exportProducts(any());
+    verify(productService, never()).getAllProducts();
   }
 
   @Test
@@ -116,15 +270,93 @@ class ProductControllerTest {
     verify(productService, times(1)).save(any(Product.class));
   }
 
+  @Test
+  void testCreateProductIgnoresClientId() throws Exception {
+    List<Long> submittedIds = new ArrayList<>();
+    when(productService.save(any(Product.class))).thenAnswer(invocation -> {
+      Product saved = invocation.getArgument(0);
+      submittedIds.add(saved.getId());
+      saved.setId(51);
+      return saved;
+    });
+
+    mockMvc.perform(post("/api/products")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"id\":7,\"name\":\"New Product\",\"price\":199.99}"))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.data.id").value(51));
+
+    // Saved as new, not merged into product 7
+    assertEquals(List.of(0L), submittedIds);
+  }
+
+  @Test
+  void testCreateProductsBulk() throws Exception {
+    when(productBulkService.createProducts(anyList())).thenReturn(List.of(
+        BulkItemResult.of(0, 10, BulkItemResult.Status.CREATED),
+        BulkItemResult.failed(1, null, "name is required")));
+
+    mockMvc.perform(post("/api/products/bulk")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[{\"name\":\"A\",\"price\":1.0},{\"price\":2.0}]"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.meta.message").value("Bulk Processed"))
+        .andExpect(jsonPath("$.data[0].id").value(10))
+        .andExpect(jsonPath("$.data[0].status").value("CREATED"))
+        .andExpect(jsonPath("$.data[0].error").doesNotExist())
+        .andExpect(jsonPath("$.data[1].status").value("FAILED"))
+        .andExpect(jsonPath("$.data[1].error").value("name is required"));
+  }
+
+  @Test
+  void testCreateProductsBulkInterrupted() throws Exception {
+    when(productBulkService.createProducts(anyList())).thenThrow(new BulkWriteInterruptedException(
+        List.of(BulkItemResult.of(0, 10, BulkItemResult.Status.CREATED)),
+        new DataAccessResourceFailureException("Connection refused")));
+
+    mockMvc.perform(post("/api/products/bulk")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[{\"name\":\"A\",\"price\":1.0},{\"name\":\"B\",\"price\":2.0}]"))
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(header().string("Retry-After", "1"))
+        .andExpect(jsonPath("$.data[0].status").value("CREATED"))
+        .andExpect(jsonPath("$.error.type").value("unavailable"));
+  }
+
+  @Test
+  void testUpdateProductsBulk() throws Exception {
+    when(productBulkService.updateProducts(anyList())).thenReturn(List.of(
+        BulkItemResult.of(0, 1, BulkItemResult.Status.UPDATED)));
+
+    mockMvc.perform(patch("/api/products/bulk")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[{\"id\":1,\"name\":\"A\",\"price\":1.0}]"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data[0].status").value("UPDATED"));
+  }
+
+  @Test
+  void testDeleteProductsBulkTooLarge() throws Exception {
+    when(productBulkService.softDeleteProducts(anyList()))
+        .thenThrow(new IllegalArgumentException("At most 10000 items are accepted per request"));
+
+    mockMvc.perform(delete("/api/products/bulk")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[1,2,3]"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error.type").value("bad_request"));
+
+    verify(productService, never()).softDelete(anyLong());
+  }
+
   @Test
   void testUpdateProduct() throws Exception {
     Long productId = 1L;
-    Product existingProduct = new Product(productId, "Old Product", 100.0);
     Product updatedProductData = new Product(productId, "Updated Product", 150.0);
     Product updatedProduct = new Product(productId, "Updated Product", 150.0);
+    updatedProduct.setVersion(1L);
 
-    when(productService.findById(productId)).thenReturn(Optional.of(existingProduct));
-    when(productService.updateProduct(anyLong(), any(Product.class))).thenReturn(updatedProduct);
+    when(productService.updateProduct(eq(productId), any(Product.class), isNull())).thenReturn(updatedProduct);
 
     mockMvc.perform(put("/api/products/{id}", productId)
         .contentType(MediaType.APPLICATION_JSON)
@@ -134,10 +366,11 @@ class ProductControllerTest {
         .andExpect(jsonPath("$.data.name").value("Updated Product"))
         .andExpect(jsonPath("$.data.price").value(150.0))
         .andExpect(jsonPath("$.meta.status").value("OK"))
-        .andExpect(jsonPath("$.meta.message").value("Updated"));
+        .andExpect(jsonPath("$.meta.message").value("Updated"))
+        .andExpect(header().string("ETag", "\"1-1\""));
 
-    verify(productService, times(1)).findById(productId);
-    verify(productService, times(1)).updateProduct(anyLong(), any(Product.class));
+    verify(productService, never()).findById(anyLong());
+    verify(productService, times(1)).updateProduct(eq(productId), any(Product.class), isNull());
   }
 
   @Test
@@ -145,7 +378,8 @@ class ProductControllerTest {
     Long productId = 999L;
     Product updatedProductData = new Product(productId, "Updated Product", 150.0);
 
-    when(productService.findById(productId)).thenReturn(Optional.empty());
+    when(productService.updateProduct(eq(productId), any(Product.class), isNull()))
+        .thenThrow(new ProductNotFoundException());
 
     mockMvc.perform(put("/api/products/{id}", productId)
         .contentType(MediaType.APPLICATION_JSON)
@@ -157,9 +391,158 @@ class ProductControllerTest {
         .andExpect(jsonPath("$.error.title").value("Product Not Found"))
         .andExpect(jsonPath("$.error.detail").value("No product found with id 999"))
         .andExpect(jsonPath("$.error.status").value("NOT_FOUND"));
+  }
 
-    verify(productService, times(1)).findById(productId);
-    verify(productService, never()).updateProduct(anyLong(), any(Product.class));
+  @Test
+  void testUpdateProduct_StaleVersionConflicts() throws Exception {
+    when(productService.updateProduct(eq(1L), any(Product.class), eq(3L)))
+        .thenThrow(new ObjectOptimisticLockingFailureException(Product.class, 1L));
+
+    mockMvc.perform(put("/api/products/{id}", 1L)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"name\":\"New Product\",\"price\":150.0,\"version\":3}"))
+        .andExpect(status().isConflict())
+        .andExpect(jsonPath("$.meta.status").value("CONFLICT"))
+        .andExpect(jsonPath("$.error.type").value("conflict"))
+        .andExpect(jsonPath("$.error.detail").value("Product with id 1 was modified, expected version 3"));
+  }
+
+  @Test
+  void testPatchProduct() throws Exception {
+    Product patched = new Product(1L, "Laptop", 1450.0);
+    patched.setVersion(4L);
+    when(productService.patchProduct(eq(1L), any(ProductPatch.class), eq(3L))).thenReturn(patched);
+
+    mockMvc.perform(patch("/api/products/{id}", 1L)
+        .header("If-Match", "\"1-3\"")
+        .contentType("application/merge-patch+json")
+        .content("{\"price\":1450.0}"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("ETag", "\"1-4\""))
+        .andExpect(jsonPath("$.data.price").value(1450.0))
+        .andExpect(jsonPath("$.meta.message").value("Updated"));
+
+    verify(productService).patchProduct(eq(1L),
+        argThat(patch -> patch.getName() == null && patch.getPrice() == 1450.0), eq(3L));
+  }
+
+  @Test
+  void testPatchProductInvalid() throws Exception {
+    mockMvc.perform(patch("/api/products/{id}", 1L)
+        .contentType("application/merge-patch+json")
+        .content("{\"name\":null}"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error.type").value("bad_request"))
+        .andExpect(jsonPath("$.error.detail").value("name must be a non-empty string"));
+
+    verify(productService, never()).patchProduct(anyLong(), any(), any());
+  }
+
+  @Test
+  void testPatchProductNotFound() throws Exception {
+    when(productService.patchProduct(eq(999L), any(ProductPatch.class), isNull()))
+        .thenThrow(new ProductNotFoundException());
+
+    mockMvc.perform(patch("/api/products/{id}", 999L)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"price\":1.0}"))
+        .andExpect(status().isNotFound())
+        .andExpect(jsonPath("$.error.type").value("not_found"));
+  }
+
+  @Test
+  void testApplyPrices() throws Exception {
+    when(productPriceFeedService.apply(any())).thenReturn(new PriceFeedResult(3, 1, 1, 1, 0, 1));
+
+    mockMvc.perform(post("/api/products/prices")
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .content("{\"id\":1,\"price\":2.0}\n{\"id\":1,\"price\":2.5}\n{\"id\":9,\"price\":1.0}\n"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.meta.message").value("Prices Applied"))
+        .andExpect(jsonPath("$.data.received").value(3))
+        .andExpect(jsonPath("$.data.applied").value(1))
+        .andExpect(jsonPath("$.data.coalesced").value(1))
+        .andExpect(jsonPath("$.data.skipped").value(1));
+  }
+
+  @Test
+  void testApplyPricesMalformed() throws Exception {
+    when(productPriceFeedService.apply(any())).thenThrow(new IllegalArgumentException("Malformed price update"));
+
+    mockMvc.perform(post("/api/products/prices")
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .content("{\"id\":"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error.type").value("bad_request"));
+  }
+
+  @Test
+  void testGetChangesWithoutSinceReturnsCurrentSeq() throws Exception {
+    when(productChangeFeed.currentSeq()).thenReturn(42L);
+
+    MvcResult result = mockMvc.perform(get("/api/products/changes")).andReturn();
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data").isEmpty())
+        .andExpect(jsonPath("$.meta.next").value("42"));
+  }
+
+  @Test
+  void testGetChangesReturnsChangesAndNextSeq() throws Exception {
+    ProductChange change = new ProductChange(ProductChange.Type.UPDATED, new Product(1, "Laptop", 1400.0),
+        LocalDateTime.of(2024, 1, 1, 12, 0));
+    change.setSeq(8L);
+    when(productChangeFeed.changesAfter(eq(7L), eq(100), any()))
+        .thenReturn(CompletableFuture.completedFuture(List.of(change)));
+
+    MvcResult result = mockMvc.perform(get("/api/products/changes").param("since", "7").param("wait", "10"))
+        .andReturn();
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data[0].seq").value(8))
+        .andExpect(jsonPath("$.data[0].type").value("UPDATED"))
+        .andExpect(jsonPath("$.data[0].price").value(1400.0))
+        .andExpect(jsonPath("$.data[0].id").doesNotExist())
+        .andExpect(jsonPath("$.meta.next").value("8"));
+    verify(productChangeFeed).changesAfter(7L, 100, Duration.ofSeconds(10));
+  }
+
+  @Test
+  void testGetChangesExpiredIsGone() throws Exception {
+    when(productChangeFeed.changesAfter(eq(1L), anyInt(), any()))
+        .thenThrow(new ProductChangesExpiredException(1, 50));
+
+    MvcResult result = mockMvc.perform(get("/api/products/changes").param("since", "1")).andReturn();
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isGone())
+        .andExpect(jsonPath("$.error.type").value("gone"));
+  }
+
+  @Test
+  void testStreamChangesResumesFromLastEventId() throws Exception {
+    when(productChangeStream.subscribe(any(), any())).thenReturn(new SseEmitter());
+
+    mockMvc.perform(get("/api/products/changes").accept(MediaType.TEXT_EVENT_STREAM)
+        .header("Last-Event-ID", "12").param("since", "3").param("ids", "1,2"))
+        .andExpect(request().asyncStarted());
+
+    verify(productChangeStream).subscribe(12L, Set.of(1L, 2L));
+  }
+
+  @Test
+  void testStreamChangesRefusalsAreJson() throws Exception {
+    when(productChangeStream.subscribe(eq(1L), any())).thenThrow(new ProductChangesExpiredException(1, 50));
+    when(productChangeStream.subscribe(isNull(), any()))
+        .thenThrow(new RejectedExecutionException("Too many change stream subscribers"));
+
+    mockMvc.perform(get("/api/products/changes").accept(MediaType.TEXT_EVENT_STREAM).param("since", "1"))
+        .andExpect(status().isGone())
+        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+        .andExpect(jsonPath("$.error.type").value("gone"));
+    mockMvc.perform(get("/api/products/changes").accept(MediaType.TEXT_EVENT_STREAM))
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(header().string("Retry-After", "1"))
+        .andExpect(jsonPath("$.error.type").value("overloaded"));
   }
 
   @Test
@@ -197,4 +580,171 @@ class ProductControllerTest {
     verify(productService, never()).softDelete(anyLong());
   }
 
+  @Test
+  void testGetProductById_NotModified() throws Exception {
+    Product product = new Product(1L, "Test Product", 100.0);
+    product.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 12, 0));
+    when(productService.findById(1L)).thenReturn(Optional.of(product));
+
+    String etag = mockMvc.perform(get("/api/products/{id}", 1L))
+        .andExpect(status().isOk())
+        .andExpect(header().exists("Last-Modified"))
+        .andReturn().getResponse().getHeader("ETag");
+
+    mockMvc.perform(get("/api/products/{id}", 1L).header("If-None-Match", etag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string("ETag", etag))
+        .andExpect(content().string(""));
+
+    product.setVersion(1L);
+    mockMvc.perform(get("/api/products/{id}", 1L).header("If-None-Match", etag))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data.id").value(1));
+  }
+
+  @Test
+  void testGetAllProducts_NotModified() throws Exception {
+    when(productService.getCatalogSeq()).thenReturn(3L);
+    when(productService.getProductPage(isNull(), eq(ProductService.DEFAULT_PAGE_SIZE), any(), isNull(), isNull()))
+        .thenReturn(new ProductPage(List.of(new Product(1, "test 1", 1.55)), null));
+
+    String etag = mockMvc.perform(get("/api/products"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader("ETag");
+
+    mockMvc.perform(get("/api/products").header("If-None-Match", etag))
+        .andExpect(status().isNotModified());
+    mockMvc.perform(get("/api/products").param("name", "test").header("If-None-Match", etag))
+        .andExpect(status().isOk());
+    // "Aa" and "BB" share a String hashCode
+    String etagAa = mockMvc.perform(get("/api/products").param("name", "Aa"))
+        .andReturn().getResponse().getHeader("ETag");
+    mockMvc.perform(get("/api/products").param("name", "BB").header("If-None-Match", etagAa))
+        .andExpect(status().isOk());
+    // A write moves the outbox seq
+    when(productService.getCatalogSeq()).thenReturn(4L);
+    mockMvc.perform(get("/api/products").header("If-None-Match", etag))
+        .andExpect(status().isOk());
+
+    verify(productService, times(2)).getProductPage(null, ProductService.DEFAULT_PAGE_SIZE, null, null, null);
+    verify(productService, times(1)).getProductPage(null, ProductService.DEFAULT_PAGE_SIZE, "test", null, null);
+    verify(productService, times(1)).getProductPage(null, ProductService.DEFAULT_PAGE_SIZE, "BB", null, null);
+  }
+
+  @Test
+  void testUpdateProduct_PreconditionFailed() throws Exception {
+    when(productService.updateProduct(eq(1L), any(Product.class), eq(5L)))
+        .thenThrow(new ObjectOptimisticLockingFailureException(Product.class, 1L));
+
+    mockMvc.perform(put("/api/products/{id}", 1L)
+        .header("If-Match", "\"1-5\"")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"name\":\"New Product\",\"price\":150.0,\"version\":2}"))
+        .andExpect(status().isPreconditionFailed())
+        .andExpect(jsonPath("$.error.type").value("precondition_failed"))
+        .andExpect(jsonPath("$.error.status").value("PRECONDITION_FAILED"));
+
+    mockMvc.perform(put("/api/products/{id}", 1L)
+        .header("If-Match", "\"2-5\"")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"name\":\"New Product\",\"price\":150.0}"))
+        .andExpect(status().isPreconditionFailed());
+
+    verify(productService, times(1)).updateProduct(anyLong(), any(Product.class), any());
+  }
+
+  @Test
+  void testDeleteProduct_IfMatch() throws Exception {
+    Product existingProduct = new Product(1L, "Test Product", 100.0);
+    existingProduct.setVersion(3L);
+    when(productService.findById(1L)).thenReturn(Optional.of(existingProduct));
+
+    mockMvc.perform(delete("/api/products/{id}", 1L).header("If-Match", "\"1-2\""))
+        .andExpect(status().isPreconditionFailed());
+    verify(productService, never()).softDelete(anyLong());
+
+    mockMvc.perform(delete("/api/products/{id}", 1L).header("If-Match", ProductETags.of(existingProduct)))
+        .andExpect(status().isNoContent());
+    verify(productService, times(1)).softDelete(1L);
+  }
+
+  @Test
+  void testSearchProducts() throws Exception {
+    when(productService.search("lap", SearchMode.SUBSTRING, 5)).thenReturn(List.of(new Product(1, "Laptop", 1500.0)));
+
+    mockMvc.perform(get("/api/products/search").param("q", "lap").param("mode", "substring").param("limit", "5"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data.length()").value(1))
+        .andExpect(jsonPath("$.data[0].name").value("Laptop"))
+        .andExpect(jsonPath("$.meta.message").value("Success"));
+  }
+
+  @Test
+  void testSearchProductsUnknownMode() throws Exception {
+    mockMvc.perform(get("/api/products/search").param("q", "lap").param("mode", "fuzzy"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error.type").value("bad_request"));
+
+    verify(productService, never()).search(any(), any(), anyInt());
+  }
+
+  @Test
+  void testCreateProductAsync() throws Exception {
+    when(productIngestService.isEnabled()).thenReturn(true);
+    when(productIngestService.submit(any(Product.class))).thenReturn(IngestStatus.pending("abc"));
+
+    mockMvc.perform(post("/api/products")
+        .header("Prefer", "respond-async")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"name\":\"New Product\",\"price\":150.0}"))
+        .andExpect(status().isAccepted())
+        .andExpect(header().string("Location", "/api/products/ingest/abc"))
+        .andExpect(jsonPath("$.data.trackingId").value("abc"))
+        .andExpect(jsonPath("$.data.state").value("PENDING"));
+
+    verify(productService, never()).save(any());
+  }
+
+  @Test
+  void testCreateProductAsyncQueueFull() throws Exception {
+    when(productIngestService.isEnabled()).thenReturn(true);
+    when(productIngestService.submit(any(Product.class))).thenThrow(new RejectedExecutionException("Ingest queue is full"));
+
+    mockMvc.perform(post("/api/products")
+        .header("Prefer", "respond-async")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"name\":\"New Product\",\"price\":150.0}"))
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(header().string("Retry-After", "1"))
+        .andExpect(jsonPath("$.error.type").value("overloaded"));
+  }
+
+  @Test
+  void testCreateProductAsyncDisabledFallsBackToSync() throws Exception {
+    Product saved = new Product(1L, "New Product", 150.0);
+    when(productIngestService.isEnabled()).thenReturn(false);
+    when(productService.save(any(Product.class))).thenReturn(saved);
+
+    mockMvc.perform(post("/api/products")
+        .header("Prefer", "respond-async")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"name\":\"New Product\",\"price\":150.0}"))
+        .andExpect(status().isCreated());
+
+    verify(productIngestService, never()).submit(any());
+  }
+
+  @Test
+  void testGetIngestStatus() throws Exception {
+    when(productIngestService.status("abc")).thenReturn(Optional.of(new IngestStatus("abc", IngestStatus.State.CREATED, 7L, null)));
+    when(productIngestService.status("nope")).thenReturn(Optional.empty());
+
+    mockMvc.perform(get("/api/products/ingest/{trackingId}", "abc"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data.state").value("CREATED"))
+        .andExpect(jsonPath("$.data.productId").value(7))
+        .andExpect(jsonPath("$.data.error").doesNotExist());
+    mockMvc.perform(get("/api/products/ingest/{trackingId}", "nope"))
+        .andExpect(status().isNotFound());
+  }
 }
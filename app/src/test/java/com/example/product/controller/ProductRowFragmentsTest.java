@@ -0,0 +1,70 @@
+package com.example.product.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.product.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+class ProductRowFragmentsTest {
+
+  private SpringTemplateEngine templateEngine;
+
+  @BeforeEach
+  void setUp() {
+    ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+    resolver.setPrefix("templates/");
+    resolver.setSuffix(".html");
+    templateEngine = new SpringTemplateEngine();
+    templateEngine.setTemplateResolver(resolver);
+  }
+
+  private static Product product(long id, String name, LocalDateTime updatedAt) {
+    Product product = new Product(id, name, 10.0);
+    product.setUpdatedAt(updatedAt);
+    return product;
+  }
+
+  @Test
+  void testRenderEscapesAndCaches() {
+    ProductRowFragments fragments = new ProductRowFragments(templateEngine, 10);
+    LocalDateTime updatedAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    String first = fragments.render(product(1, "<b>Laptop</b>", updatedAt));
+    String second = fragments.render(product(1, "<b>Laptop</b>", updatedAt));
+
+    assertTrue(first.contains("<td>1</td>"));
+    assertTrue(first.contains("&lt;b&gt;Laptop&lt;/b&gt;"));
+    assertSame(first, second);
+    assertEquals(1, fragments.size());
+  }
+
+  @Test
+  void testRenderAfterUpdateRendersAgain() {
+    ProductRowFragments fragments = new ProductRowFragments(templateEngine, 10);
+    LocalDateTime updatedAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+    fragments.render(product(1, "Laptop", updatedAt));
+
+    String html = fragments.render(product(1, "Tablet", updatedAt.plusSeconds(1)));
+
+    assertTrue(html.contains("Tablet"));
+    assertEquals(html, fragments.render(product(1, "Tablet", updatedAt.plusSeconds(1))));
+  }
+
+  @Test
+  void testCacheIsBounded() {
+    ProductRowFragments fragments = new ProductRowFragments(templateEngine, 2);
+    LocalDateTime updatedAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    List<String> rows = fragments.render(List.of(product(1, "A", updatedAt), product(2, "B", updatedAt),
+        product(3, "C", updatedAt)));
+
+    assertEquals(3, rows.size());
+    assertEquals(2, fragments.size());
+  }
+}
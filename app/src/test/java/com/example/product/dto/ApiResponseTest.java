@@ -2,8 +2,15 @@ package com.example.product.dto;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.product.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 class ApiResponseTest {
 
@@ -46,4 +53,37 @@ class ApiResponseTest {
     assertNotNull(response.getError());
     assertArrayEquals(new String[] { "Error details" }, (String[]) response.getError()); // Verifying the error details
   }
+
+  @Test
+  void testSerializedShape() throws Exception {
+    ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .build();
+
+    ApiResponse<List<Product>> page = new ApiResponse<>(HttpStatus.OK, "Success",
+        List.of(new Product(1, "Laptop", 1500.0)), null, "abc");
+    assertEquals("{\"meta\":{\"status\":\"OK\",\"message\":\"Success\",\"timestamp\":\""
+        + page.getMeta().getTimestamp() + "\",\"next\":\"abc\"},"
+        + "\"data\":[{\"id\":1,\"name\":\"Laptop\",\"price\":1500.0,\"createdAt\":null,\"updatedAt\":null,"
+        + "\"deletedAt\":null,\"version\":null,\"deleted\":false}],\"error\":[]}", mapper.writeValueAsString(page));
+
+    ApiErrorResponse error = new ApiErrorResponse("not_found", "Product Not Found", null, HttpStatus.NOT_FOUND);
+    ApiResponse<Object> notFound = new ApiResponse<>(HttpStatus.NOT_FOUND, "Product Not Found", null, error);
+    assertEquals("{\"meta\":{\"status\":\"NOT_FOUND\",\"message\":\"Product Not Found\",\"timestamp\":\""
+        + notFound.getMeta().getTimestamp() + "\"},\"data\":null,"
+        + "\"error\":{\"type\":\"not_found\",\"title\":\"Product Not Found\",\"detail\":null,"
+        + "\"status\":\"NOT_FOUND\",\"timestamp\":\"" + error.getTimestamp() + "\"}}",
+        mapper.writeValueAsString(notFound));
+  }
+
+  @Test
+  void testSerializedTimestampFollowsMapperSettings() throws Exception {
+    ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+        .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .build();
+
+    ApiResponse<String> response = new ApiResponse<>(HttpStatus.OK, "Success", "Test Data", null);
+    assertEquals(response.getMeta().getTimestamp().toEpochMilli() / 1000.0,
+        mapper.readTree(mapper.writeValueAsString(response)).at("/meta/timestamp").asDouble());
+  }
 }
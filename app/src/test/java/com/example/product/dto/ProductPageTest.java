@@ -0,0 +1,27 @@
+package com.example.product.dto;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class ProductPageTest {
+
+  @Test
+  void testCursorRoundTrip() {
+    String cursor = ProductPage.encodeCursor(123456789L);
+
+    assertEquals(123456789L, ProductPage.decodeCursor(cursor));
+  }
+
+  @Test
+  void testMissingCursorStartsFromBeginning() {
+    assertEquals(0L, ProductPage.decodeCursor(null));
+    assertEquals(0L, ProductPage.decodeCursor(""));
+  }
+
+  @Test
+  void testInvalidCursor() {
+    assertThrows(IllegalArgumentException.class, () -> ProductPage.decodeCursor("not a cursor"));
+    assertThrows(IllegalArgumentException.class, () -> ProductPage.decodeCursor("AQ"));
+  }
+}
@@ -0,0 +1,37 @@
+package com.example.product.dto;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class ProductPatchTest {
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  private ProductPatch parse(String json) throws Exception {
+    return ProductPatch.from(mapper.readTree(json));
+  }
+
+  @Test
+  void testOnlySuppliedFieldsAreSet() throws Exception {
+    ProductPatch patch = parse("{\"price\":9.5}");
+
+    assertNull(patch.getName());
+    assertEquals(9.5, patch.getPrice());
+    assertNull(patch.getVersion());
+    assertFalse(patch.isEmpty());
+    assertTrue(parse("{}").isEmpty());
+    assertEquals(4L, parse("{\"name\":\"Laptop\",\"version\":4}").getVersion());
+  }
+
+  @Test
+  void testInvalidPatchesRejected() {
+    assertThrows(IllegalArgumentException.class, () -> parse("{\"name\":null}"));
+    assertThrows(IllegalArgumentException.class, () -> parse("{\"name\":\" \"}"));
+    assertThrows(IllegalArgumentException.class, () -> parse("{\"price\":\"cheap\"}"));
+    assertThrows(IllegalArgumentException.class, () -> parse("{\"id\":2}"));
+    assertThrows(IllegalArgumentException.class, () -> parse("[]"));
+  }
+}
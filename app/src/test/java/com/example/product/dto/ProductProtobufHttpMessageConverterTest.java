@@ -0,0 +1,83 @@
+package com.example.product.dto;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import com.example.product.model.Product;
+import com.example.product.proto.ProductListResponse;
+import com.example.product.proto.ProductResponse;
+
+class ProductProtobufHttpMessageConverterTest {
+
+  private final ProductProtobufHttpMessageConverter converter = new ProductProtobufHttpMessageConverter();
+
+  @Test
+  void testWritesProductList() throws Exception {
+    Product product = new Product(1, "Laptop", 1500.0);
+    product.setUpdatedAt(LocalDateTime.of(2024, 5, 1, 12, 30));
+    product.setVersion(3L);
+    ApiResponse<List<Product>> page = new ApiResponse<>(HttpStatus.OK, "Success",
+        List.of(product, new Product(2, "Phone", 800.0)), null, "abc");
+
+    MockHttpOutputMessage output = new MockHttpOutputMessage();
+    converter.write(page, new ParameterizedTypeReference<ApiResponse<List<Product>>>() {}.getType(),
+        ProductProtobufHttpMessageConverter.PROTOBUF, output);
+
+    ProductListResponse decoded = ProductListResponse.parseFrom(output.getBodyAsBytes());
+    assertEquals(200, decoded.getMeta().getStatus());
+    assertEquals("Success", decoded.getMeta().getMessage());
+    assertEquals("abc", decoded.getMeta().getNext());
+    assertEquals(page.getMeta().getTimestamp().toEpochMilli() / 1000, decoded.getMeta().getTimestamp().getSeconds());
+    assertEquals(2, decoded.getDataCount());
+    assertEquals("Laptop", decoded.getData(0).getName());
+    assertEquals(1500.0, decoded.getData(0).getPrice());
+    assertEquals(3, decoded.getData(0).getVersion());
+    assertEquals(product.getUpdatedAt().atZone(ZoneId.systemDefault()).toEpochSecond(),
+        decoded.getData(0).getUpdatedAt().getSeconds());
+    assertFalse(decoded.getData(0).hasCreatedAt());
+    assertFalse(decoded.hasError());
+    assertEquals(output.getBodyAsBytes().length, output.getHeaders().getContentLength());
+  }
+
+  @Test
+  void testWritesErrorFromWildcardHandler() throws Exception {
+    ApiResponse<Object> notFound = new ApiResponse<>(HttpStatus.NOT_FOUND, "Product Not Found", null,
+        new ApiErrorResponse("not_found", "Product Not Found", "No product found with id 9", HttpStatus.NOT_FOUND));
+
+    MockHttpOutputMessage output = new MockHttpOutputMessage();
+    converter.write(notFound, Object.class, ProductProtobufHttpMessageConverter.PROTOBUF, output);
+
+    ProductResponse decoded = ProductResponse.parseFrom(output.getBodyAsBytes());
+    assertEquals(404, decoded.getMeta().getStatus());
+    assertFalse(decoded.getMeta().hasNext());
+    assertFalse(decoded.hasData());
+    assertEquals("not_found", decoded.getError().getType());
+    assertEquals("No product found with id 9", decoded.getError().getDetail());
+    assertEquals(404, decoded.getError().getStatus());
+    // An error body decodes the same as a list response
+    assertEquals("not_found", ProductListResponse.parseFrom(output.getBodyAsBytes()).getError().getType());
+  }
+
+  @Test
+  void testOnlyWritesProductPayloads() {
+    MediaType protobuf = ProductProtobufHttpMessageConverter.PROTOBUF;
+    assertTrue(converter.canWrite(new ParameterizedTypeReference<ApiResponse<Product>>() {}.getType(),
+        ApiResponse.class, protobuf));
+    assertTrue(converter.canWrite(Object.class, ApiResponse.class, protobuf));
+    assertFalse(converter.canWrite(new ParameterizedTypeReference<ApiResponse<List<BulkItemResult>>>() {}.getType(),
+        ApiResponse.class, protobuf));
+    assertFalse(converter.canWrite(new ParameterizedTypeReference<ApiResponse<IngestStatus>>() {}.getType(),
+        ApiResponse.class, protobuf));
+    assertFalse(converter.canWrite(Product.class, Product.class, protobuf));
+    assertFalse(converter.canRead(ApiResponse.class, protobuf));
+  }
+}
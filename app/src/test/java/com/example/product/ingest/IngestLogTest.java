@@ -0,0 +1,61 @@
+package com.example.product.ingest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.product.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class IngestLogTest {
+
+  @TempDir
+  private Path dir;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void testPendingSurvivesReopen() throws Exception {
+    Path path = dir.resolve("ingest.log");
+    try (IngestLog log = new IngestLog(path, true, objectMapper)) {
+      log.accepted("a", new Product(0, "Laptop", 1500.0));
+      log.accepted("b", new Product(0, "Tablet", 500.0));
+      log.finished(List.of("a"));
+    }
+    // A crash mid-append leaves a torn line behind
+    Files.writeString(path, "{\"op\":\"A\",\"id\":\"c\",\"na", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+    try (IngestLog log = new IngestLog(path, true, objectMapper)) {
+      Map<String, Product> pending = log.pending();
+      assertEquals(List.of("b"), List.copyOf(pending.keySet()));
+      assertEquals("Tablet", pending.get("b").getName());
+      assertEquals(500.0, pending.get("b").getPrice());
+    }
+  }
+
+  @Test
+  void testTruncateOnlyWhenIdle() throws Exception {
+    Path path = dir.resolve("ingest.log");
+    try (IngestLog log = new IngestLog(path, false, objectMapper)) {
+      log.accepted("a", new Product(0, "Laptop", 1500.0));
+
+      log.truncateIfIdle(() -> false);
+      assertTrue(Files.size(path) > 0);
+
+      log.finished(List.of("a"));
+      log.truncateIfIdle(() -> true);
+      assertEquals(0, Files.size(path));
+
+      log.accepted("b", new Product(0, "Tablet", 500.0));
+      assertEquals(List.of("b"), List.copyOf(log.pending().keySet()));
+    }
+  }
+}
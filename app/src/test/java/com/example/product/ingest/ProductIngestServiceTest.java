@@ -0,0 +1,188 @@
+package com.example.product.ingest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import com.example.product.cache.ProductCache;
+import com.example.product.dto.BulkItemResult;
+import com.example.product.dto.IngestStatus;
+import com.example.product.dto.IngestStatus.State;
+import com.example.product.model.Product;
+import com.example.product.repository.ProductChangeRepository;
+import com.example.product.repository.ProductRepository;
+import com.example.product.service.ProductBulkService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith(MockitoExtension.class)
+class ProductIngestServiceTest {
+
+  @TempDir
+  private Path dir;
+
+  @Mock
+  private ProductBulkService productBulkService;
+
+  private ProductIngestService ingestService;
+
+  @AfterEach
+  void tearDown() throws Exception {
+    if (ingestService != null) {
+      ingestService.stop();
+    }
+  }
+
+  private ProductIngestService start(int capacity) {
+    ingestService = new ProductIngestService(productBulkService, new ObjectMapper(), true, capacity, 100,
+        Duration.ofMillis(20), dir.resolve("ingest.log"), true, 1000);
+    ingestService.start();
+    return ingestService;
+  }
+
+  // Creates everything it is given, numbering products from 100
+  private void createAll() {
+    when(productBulkService.createProducts(anyList())).thenAnswer(invocation -> {
+      List<Product> products = invocation.getArgument(0);
+      List<BulkItemResult> results = new ArrayList<>();
+      for (int i = 0; i < products.size(); i++) {
+        results.add(products.get(i).getName().equals("Duplicate")
+            ? BulkItemResult.failed(i, null, "duplicate key")
+            : BulkItemResult.of(i, 100 + i, BulkItemResult.Status.CREATED));
+      }
+      return results;
+    });
+  }
+
+  private IngestStatus awaitFinished(String trackingId) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (System.nanoTime() < deadline) {
+      IngestStatus status = ingestService.status(trackingId).orElseThrow();
+      if (status.getState() != State.PENDING) {
+        return status;
+      }
+      Thread.sleep(10);
+    }
+    fail("Ingest " + trackingId + " did not finish");
+    return null;
+  }
+
+  @Test
+  void testSubmitIsWrittenInBatches() throws Exception {
+    createAll();
+    start(100);
+
+    IngestStatus first = ingestService.submit(new Product(0, "Laptop", 1500.0));
+    IngestStatus second = ingestService.submit(new Product(0, "Duplicate", 1.0));
+    assertEquals(State.PENDING, first.getState());
+
+    IngestStatus created = awaitFinished(first.getTrackingId());
+    assertEquals(State.CREATED, created.getState());
+    assertNotNull(created.getProductId());
+    IngestStatus failed = awaitFinished(second.getTrackingId());
+    assertEquals(State.FAILED, failed.getState());
+    assertEquals("duplicate key", failed.getError());
+  }
+
+  @Test
+  void testDatabaseOutageIsRetried() throws Exception {
+    ProductRepository productRepository = mock(ProductRepository.class);
+    when(productRepository.saveAll(anyList()))
+        .thenThrow(new CannotCreateTransactionException("Could not open JDBC Connection"))
+        .thenThrow(new DataAccessResourceFailureException("Connection refused"))
+        .thenAnswer(invocation -> {
+          List<Product> products = invocation.getArgument(0);
+          products.forEach(product -> product.setId(7));
+          return products;
+        });
+    productBulkService = new ProductBulkService(productRepository, mock(ProductCache.class),
+        mock(ProductChangeRepository.class), null, null);
+    start(10);
+
+    IngestStatus accepted = ingestService.submit(new Product(0, "Laptop", 1500.0));
+
+    IngestStatus created = awaitFinished(accepted.getTrackingId());
+    assertEquals(State.CREATED, created.getState());
+    assertEquals(7L, created.getProductId());
+    verify(productRepository, times(3)).saveAll(anyList());
+  }
+
+  @Test
+  void testRejectsWhenQueueIsFull() throws Exception {
+    CountDownLatch writing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(productBulkService.createProducts(anyList())).thenAnswer(invocation -> {
+      writing.countDown();
+      release.await();
+      List<Product> products = invocation.getArgument(0);
+      List<BulkItemResult> results = new ArrayList<>();
+      for (int i = 0; i < products.size(); i++) {
+        results.add(BulkItemResult.of(i, i + 1, BulkItemResult.Status.CREATED));
+      }
+      return results;
+    });
+    start(2);
+
+    ingestService.submit(new Product(0, "A", 1.0));
+    assertTrue(writing.await(5, TimeUnit.SECONDS));
+    ingestService.submit(new Product(0, "B", 1.0));
+    assertThrows(RejectedExecutionException.class, () -> ingestService.submit(new Product(0, "C", 1.0)));
+
+    release.countDown();
+    IngestStatus d = null;
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (d == null && System.nanoTime() < deadline) {
+      try {
+        d = ingestService.submit(new Product(0, "D", 1.0));
+      } catch (RejectedExecutionException e) {
+        Thread.sleep(10);
+      }
+    }
+    assertEquals(State.CREATED, awaitFinished(d.getTrackingId()).getState());
+  }
+
+  @Test
+  void testRejectsBlankName() {
+    start(10);
+    assertThrows(IllegalArgumentException.class, () -> ingestService.submit(new Product(0, " ", 1.0)));
+  }
+
+  @Test
+  void testReplaysUnfinishedEntriesOnStart() throws Exception {
+    try (IngestLog log = new IngestLog(dir.resolve("ingest.log"), true, new ObjectMapper())) {
+      log.accepted("left-over", new Product(0, "Laptop", 1500.0));
+    }
+    createAll();
+    start(10);
+
+    assertEquals(State.CREATED, awaitFinished("left-over").getState());
+    verify(productBulkService).createProducts(argThat(products -> products.size() == 1
+        && products.get(0).getName().equals("Laptop")));
+  }
+
+  @Test
+  void testDisabledDoesNotAccept() throws Exception {
+    ingestService = new ProductIngestService(productBulkService, new ObjectMapper(), false, 10, 100,
+        Duration.ofMillis(20), dir.resolve("ingest.log"), true, 1000);
+    ingestService.start();
+
+    assertFalse(ingestService.isEnabled());
+    assertThrows(IllegalStateException.class, () -> ingestService.submit(new Product(0, "Laptop", 1.0)));
+  }
+}
@@ -0,0 +1,85 @@
+package com.example.product.limit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimiterTest {
+
+  private static final long WINDOW = 100_000_000L;
+  private static final long FAST = 1_000_000L;
+
+  private final AtomicLong now = new AtomicLong();
+
+  @Test
+  void testAdmitsUpToTheLimit() {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 2.0, WINDOW, now::get);
+
+    assertTrue(limiter.tryAcquire());
+    assertTrue(limiter.tryAcquire());
+    assertFalse(limiter.tryAcquire());
+    assertEquals(2, limiter.getInFlight());
+
+    limiter.release(FAST);
+    assertTrue(limiter.tryAcquire());
+    // An async hand-off frees the slot without a latency sample
+    limiter.release();
+    limiter.release();
+    assertEquals(0, limiter.getInFlight());
+  }
+
+  @Test
+  void testShrinksWhenLatencyRisesAndRecovers() {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 100, 2.0, WINDOW, now::get);
+    window(limiter, 20, FAST);
+    int steady = limiter.getLimit();
+    assertTrue(steady >= 20);
+
+    for (int i = 0; i < 10; i++) {
+      window(limiter, steady, 10 * FAST);
+    }
+    int congested = limiter.getLimit();
+    assertTrue(congested < steady / 2, "limit " + congested + " should have dropped from " + steady);
+    assertTrue(congested >= 4);
+
+    for (int i = 0; i < 30; i++) {
+      window(limiter, limiter.getLimit(), FAST);
+    }
+    assertTrue(limiter.getLimit() > congested);
+  }
+
+  @Test
+  void testDoesNotGrowWhileMostlyIdle() {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 100, 2.0, WINDOW, now::get);
+    for (int i = 0; i < 10; i++) {
+      window(limiter, 2, FAST);
+    }
+    assertEquals(20, limiter.getLimit());
+  }
+
+  @Test
+  void testRejectsInvalidSettings() {
+    assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(5, 10, 20, 2.0, WINDOW));
+    assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(10, 1, 5, 2.0, WINDOW));
+    assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(10, 1, 20, 0.5, WINDOW));
+  }
+
+  // One window in which up to `concurrency` requests run side by side, each taking `latency`
+  private void window(AdaptiveConcurrencyLimiter limiter, int concurrency, long latency) {
+    int admitted = 0;
+    for (int round = 0; round < 10; round++) {
+      admitted = 0;
+      while (admitted < concurrency && limiter.tryAcquire()) {
+        admitted++;
+      }
+      if (round == 9) {
+        now.addAndGet(WINDOW);
+      }
+      for (int i = 0; i < admitted; i++) {
+        limiter.release(latency);
+      }
+    }
+  }
+}
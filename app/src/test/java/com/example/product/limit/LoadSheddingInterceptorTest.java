@@ -0,0 +1,172 @@
+package com.example.product.limit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.Optional;
+
+import jakarta.servlet.DispatcherType;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.example.product.controller.ProductChangeStream;
+import com.example.product.controller.ProductController;
+import com.example.product.ingest.ProductIngestService;
+import com.example.product.service.ProductBulkService;
+import com.example.product.service.ProductChangeFeed;
+import com.example.product.service.ProductExportService;
+import com.example.product.service.ProductPriceFeedService;
+import com.example.product.service.ProductService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class LoadSheddingInterceptorTest {
+
+  @Mock
+  private ProductService productService;
+
+  @Mock
+  private ProductExportService productExportService;
+
+  @Mock
+  private ProductBulkService productBulkService;
+
+  @Mock
+  private ProductIngestService productIngestService;
+
+  @Mock
+  private ProductPriceFeedService productPriceFeedService;
+
+  @Mock
+  private ProductChangeFeed productChangeFeed;
+
+  @Mock
+  private ProductChangeStream productChangeStream;
+
+  @InjectMocks
+  private ProductController productController;
+
+  @Test
+  void testRateLimitedClientGets429() throws Exception {
+    LoadSheddingInterceptor interceptor = new LoadSheddingInterceptor(new TokenBucketRateLimiter(0.5, 2),
+        endpoint -> new AdaptiveConcurrencyLimiter(10, 1, 10, 2.0, 1_000_000_000L), 4);
+    MockMvc mockMvc = MockMvcBuilders.standaloneSetup(productController)
+        .addMappedInterceptors(new String[] { "/api/products/**" }, interceptor)
+        .build();
+    when(productService.findById(anyLong())).thenReturn(Optional.empty());
+
+    mockMvc.perform(get("/api/products/1")).andExpect(status().isNotFound());
+    mockMvc.perform(get("/api/products/1")).andExpect(status().isNotFound());
+    mockMvc.perform(get("/api/products/1"))
+        .andExpect(status().isTooManyRequests())
+        .andExpect(header().string("Retry-After", "2"))
+        .andExpect(jsonPath("$.meta.status").value("TOO_MANY_REQUESTS"))
+        .andExpect(jsonPath("$.error.type").value("rate_limited"))
+        .andExpect(jsonPath("$.error.title").value("Too Many Requests"));
+    // Another client is unaffected
+    mockMvc.perform(get("/api/products/1").with(request -> {
+      request.setRemoteAddr("10.0.0.2");
+      return request;
+    })).andExpect(status().isNotFound());
+
+    verify(productService, times(3)).findById(1L);
+  }
+
+  @Test
+  void testEndpointAtItsLimitSheds503() throws Exception {
+    LoadSheddingInterceptor interceptor = new LoadSheddingInterceptor(new TokenBucketRateLimiter(1000, 1000),
+        endpoint -> new AdaptiveConcurrencyLimiter(1, 1, 1, 2.0, 1_000_000_000L), 4);
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    interceptor.bindTo(registry);
+    HandlerMethod handler = new HandlerMethod(productController,
+        ProductController.class.getMethod("getProductById", long.class, WebRequest.class));
+
+    MockHttpServletRequest first = request();
+    assertTrue(interceptor.preHandle(first, new MockHttpServletResponse(), handler));
+    RequestRejectedException rejected = assertThrows(RequestRejectedException.class,
+        () -> interceptor.preHandle(request(), new MockHttpServletResponse(), handler));
+    assertEquals(503, rejected.getStatus().value());
+    assertEquals("overloaded", rejected.getType());
+    assertEquals(1, rejected.getRetryAfterSeconds());
+    // A different endpoint has a limit of its own
+    MockHttpServletRequest other = request();
+    other.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/products");
+    assertTrue(interceptor.preHandle(other, new MockHttpServletResponse(), handler));
+
+    interceptor.afterCompletion(first, new MockHttpServletResponse(), handler, null);
+    assertTrue(interceptor.preHandle(request(), new MockHttpServletResponse(), handler));
+    assertEquals(1.0, registry.get("product.limit.rejected").tag("reason", "concurrency").functionCounter().count());
+    assertEquals(1.0, registry.get("product.limit.concurrency.in-flight").tag("endpoint", "GET /api/products/{id}")
+        .gauge().value());
+  }
+
+  @Test
+  void testAsyncHandOffReleasesOnce() throws Exception {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 2.0, 1_000_000_000L);
+    LoadSheddingInterceptor interceptor = new LoadSheddingInterceptor(new TokenBucketRateLimiter(1000, 1000),
+        endpoint -> limiter, 4);
+    HandlerMethod handler = new HandlerMethod(productController,
+        ProductController.class.getMethod("getProductById", long.class, WebRequest.class));
+
+    MockHttpServletRequest request = request();
+    interceptor.preHandle(request, new MockHttpServletResponse(), handler);
+    interceptor.afterConcurrentHandlingStarted(request, new MockHttpServletResponse(), handler);
+    assertEquals(0, limiter.getInFlight());
+    // The async dispatch completes the same request later
+    interceptor.afterCompletion(request, new MockHttpServletResponse(), handler, null);
+    assertEquals(0, limiter.getInFlight());
+  }
+
+  // The export keeps its connection until the body is written, so its stream permit outlives the
+  // hand-off and only comes back on the async dispatch
+  @Test
+  void testStreamedBodyHoldsItsPermitUntilWritten() throws Exception {
+    LoadSheddingInterceptor interceptor = new LoadSheddingInterceptor(new TokenBucketRateLimiter(1000, 1000),
+        endpoint -> new AdaptiveConcurrencyLimiter(10, 1, 10, 2.0, 1_000_000_000L), 1);
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    interceptor.bindTo(registry);
+    HandlerMethod export = new HandlerMethod(productController, ProductController.class.getMethod("exportProducts"));
+
+    MockHttpServletRequest first = exportRequest();
+    assertTrue(interceptor.preHandle(first, new MockHttpServletResponse(), export));
+    interceptor.afterConcurrentHandlingStarted(first, new MockHttpServletResponse(), export);
+    assertEquals(1.0, registry.get("product.limit.streams.in-flight").gauge().value());
+    RequestRejectedException rejected = assertThrows(RequestRejectedException.class,
+        () -> interceptor.preHandle(exportRequest(), new MockHttpServletResponse(), export));
+    assertEquals(503, rejected.getStatus().value());
+    assertEquals(0, registry.get("product.limit.concurrency.in-flight")
+        .tag("endpoint", "GET /api/products/export").gauge().value());
+
+    first.setDispatcherType(DispatcherType.ASYNC);
+    interceptor.afterCompletion(first, new MockHttpServletResponse(), export, null);
+    assertEquals(0.0, registry.get("product.limit.streams.in-flight").gauge().value());
+    assertTrue(interceptor.preHandle(exportRequest(), new MockHttpServletResponse(), export));
+  }
+
+  private static MockHttpServletRequest exportRequest() {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/export");
+    request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/products/export");
+    return request;
+  }
+
+  private static MockHttpServletRequest request() {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/1");
+    request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/products/{id}");
+    return request;
+  }
+}
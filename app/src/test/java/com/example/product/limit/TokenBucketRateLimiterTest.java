@@ -0,0 +1,89 @@
+package com.example.product.limit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketRateLimiterTest {
+
+  private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+  @Test
+  void testAllowsBurstThenRefillsAtRate() {
+    TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 3, now::get);
+
+    assertEquals(0, limiter.tryAcquire("a"));
+    assertEquals(0, limiter.tryAcquire("a"));
+    assertEquals(0, limiter.tryAcquire("a"));
+    assertEquals(100_000_000L, limiter.tryAcquire("a"));
+    // Another client has its own bucket
+    assertEquals(0, limiter.tryAcquire("b"));
+
+    now.addAndGet(50_000_000L);
+    assertEquals(50_000_000L, limiter.tryAcquire("a"));
+    now.addAndGet(50_000_000L);
+    assertEquals(0, limiter.tryAcquire("a"));
+    assertTrue(limiter.tryAcquire("a") > 0);
+
+    // A long pause refills up to the burst, not beyond it
+    now.addAndGet(10_000_000_000L);
+    for (int i = 0; i < 3; i++) {
+      assertEquals(0, limiter.tryAcquire("a"));
+    }
+    assertTrue(limiter.tryAcquire("a") > 0);
+  }
+
+  @Test
+  void testEvictsRefilledBuckets() {
+    TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 5, now::get);
+    limiter.tryAcquire("a");
+    now.addAndGet(50_000_000L);
+    limiter.tryAcquire("b");
+    assertEquals(2, limiter.clients());
+
+    now.addAndGet(60_000_000L);
+    limiter.evictIdle();
+    assertEquals(1, limiter.clients());
+
+    now.addAndGet(100_000_000L);
+    limiter.evictIdle();
+    assertEquals(0, limiter.clients());
+  }
+
+  @Test
+  void testConcurrentCallersNeverExceedBurst() throws Exception {
+    TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 500, now::get);
+    List<Future<Integer>> granted = new ArrayList<>();
+    try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+      for (int t = 0; t < 8; t++) {
+        granted.add(executor.submit(() -> {
+          int count = 0;
+          for (int i = 0; i < 1000; i++) {
+            if (limiter.tryAcquire("shared") == 0) {
+              count++;
+            }
+          }
+          return count;
+        }));
+      }
+    }
+    int total = 0;
+    for (Future<Integer> future : granted) {
+      total += future.get();
+    }
+    assertEquals(500, total);
+  }
+
+  @Test
+  void testRejectsInvalidSettings() {
+    assertThrows(IllegalArgumentException.class, () -> new TokenBucketRateLimiter(0, 10));
+    assertThrows(IllegalArgumentException.class, () -> new TokenBucketRateLimiter(10, 0));
+  }
+}
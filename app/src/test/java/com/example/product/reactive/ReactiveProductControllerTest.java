@@ -0,0 +1,164 @@
+package com.example.product.reactive;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.example.product.dto.ProductPage;
+import com.example.product.model.Product;
+import com.example.product.service.ProductService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveProductControllerTest {
+
+  private WebTestClient webTestClient;
+
+  @Mock
+  private ReactiveProductRepository productRepository;
+
+  @InjectMocks
+  private ReactiveProductController productController;
+
+  @BeforeEach
+  void setUp() {
+    webTestClient = WebTestClient.bindToController(productController).build();
+  }
+
+  @Test
+  void testGetAllProducts() {
+    when(productRepository.findPage(0L, "", -Double.MAX_VALUE, Double.MAX_VALUE, 2)).thenReturn(Flux.just(
+        new Product(1, "test 1", 1.55),
+        new Product(2, "test 2", 90.2)));
+
+    webTestClient.get().uri("/api/products?size=1").exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.data.length()").isEqualTo(1)
+        .jsonPath("$.data[0].name").isEqualTo("test 1")
+        .jsonPath("$.meta.status").isEqualTo("OK")
+        .jsonPath("$.meta.next").isEqualTo(ProductPage.encodeCursor(1));
+  }
+
+  @Test
+  void testGetAllProductsInvalidCursor() {
+    webTestClient.get().uri("/api/products?cursor=bogus").exchange()
+        .expectStatus().isBadRequest()
+        .expectBody()
+        .jsonPath("$.error.type").isEqualTo("bad_request");
+
+    verifyNoInteractions(productRepository);
+  }
+
+  @Test
+  void testExportProducts() {
+    when(productRepository.streamAllLive()).thenReturn(Flux.just(
+        new Product(1, "test 1", 1.55),
+        new Product(2, "test 2", 90.2)));
+
+    webTestClient.get().uri("/api/products/export").accept(MediaType.APPLICATION_NDJSON).exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+        .expectBodyList(Product.class).hasSize(2);
+  }
+
+  @Test
+  void testGetProductById() {
+    when(productRepository.findLiveById(1L)).thenReturn(Mono.just(new Product(1, "Test Product", 100.0)));
+
+    webTestClient.get().uri("/api/products/{id}", 1).exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.data.id").isEqualTo(1)
+        .jsonPath("$.data.name").isEqualTo("Test Product")
+        .jsonPath("$.meta.message").isEqualTo("Success");
+  }
+
+  @Test
+  void testGetProductByIdNotFound() {
+    when(productRepository.findLiveById(999L)).thenReturn(Mono.empty());
+
+    webTestClient.get().uri("/api/products/{id}", 999).exchange()
+        .expectStatus().isNotFound()
+        .expectBody()
+        .jsonPath("$.meta.status").isEqualTo("NOT_FOUND")
+        .jsonPath("$.error.type").isEqualTo("not_found")
+        .jsonPath("$.error.detail").isEqualTo("No product found with id 999");
+  }
+
+  @Test
+  void testCreateProduct() {
+    when(productRepository.insert(any(Product.class))).thenReturn(Mono.just(new Product(1, "New Product", 199.99)));
+
+    webTestClient.post().uri("/api/products").contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"name\":\"New Product\",\"price\":199.99}").exchange()
+        .expectStatus().isCreated()
+        .expectBody()
+        .jsonPath("$.data.id").isEqualTo(1)
+        .jsonPath("$.meta.status").isEqualTo("CREATED");
+  }
+
+  @Test
+  void testUpdateProductNotFound() {
+    when(productRepository.update(eq(999L), any(Product.class))).thenReturn(Mono.empty());
+
+    webTestClient.put().uri("/api/products/{id}", 999).contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"name\":\"Updated\",\"price\":1.0}").exchange()
+        .expectStatus().isNotFound()
+        .expectBody()
+        .jsonPath("$.error.title").isEqualTo("Product Not Found");
+  }
+
+  @Test
+  void testUpdateProductStaleVersion() {
+    when(productRepository.update(eq(1L), any(Product.class))).thenReturn(Mono.empty());
+    when(productRepository.findLiveById(1L)).thenReturn(Mono.just(new Product(1L, "Laptop", 1500.0)));
+
+    webTestClient.put().uri("/api/products/{id}", 1).contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"name\":\"Updated\",\"price\":1.0,\"version\":3}").exchange()
+        .expectStatus().isEqualTo(409)
+        .expectBody()
+        .jsonPath("$.error.type").isEqualTo("conflict");
+  }
+
+  @Test
+  void testDeleteProduct() {
+    when(productRepository.softDelete(1L)).thenReturn(Mono.just(true));
+
+    webTestClient.delete().uri("/api/products/{id}", 1).exchange()
+        .expectStatus().isNoContent()
+        .expectBody().isEmpty();
+  }
+
+  @Test
+  void testDeleteProductNotFound() {
+    when(productRepository.softDelete(anyLong())).thenReturn(Mono.just(false));
+
+    webTestClient.delete().uri("/api/products/{id}", 999).exchange()
+        .expectStatus().isNotFound();
+  }
+
+  @Test
+  void testPageSizeIsCapped() {
+    when(productRepository.findPage(0L, "", -Double.MAX_VALUE, Double.MAX_VALUE, ProductService.MAX_PAGE_SIZE + 1))
+        .thenReturn(Flux.empty());
+
+    webTestClient.get().uri("/api/products?size=100000").exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.data.length()").isEqualTo(0)
+        .jsonPath("$.meta.next").doesNotExist();
+  }
+}
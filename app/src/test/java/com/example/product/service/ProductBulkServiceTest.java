@@ -0,0 +1,221 @@
+package com.example.product.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.product.cache.ProductCache;
+import com.example.product.dto.BulkItemResult;
+import com.example.product.dto.BulkItemResult.Status;
+import com.example.product.dto.ProductUpdate;
+import com.example.product.model.Product;
+import com.example.product.model.ProductChange;
+import com.example.product.repository.ProductChangeRepository;
+import com.example.product.repository.ProductRepository;
+
+import jakarta.persistence.EntityManager;
+
+@ExtendWith(MockitoExtension.class)
+class ProductBulkServiceTest {
+
+  @Mock
+  private ProductRepository productRepository;
+
+  @Mock
+  private ProductCache productCache;
+
+  @Mock
+  private ProductChangeRepository changeRepository;
+
+  @Mock
+  private EntityManager entityManager;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private ProductBulkService productBulkService;
+
+  @BeforeEach
+  void setUp() {
+    productBulkService = new ProductBulkService(productRepository, productCache, changeRepository, entityManager,
+        transactionManager);
+  }
+
+  @Test
+  void testCreateProducts_SavedInChunks() {
+    List<Product> products = IntStream.range(0, ProductBulkService.CHUNK_SIZE + 1)
+        .mapToObj(i -> new Product(0, "Product " + i, i))
+        .toList();
+    when(productRepository.saveAll(anyList())).thenAnswer(invocation -> {
+      List<Product> chunk = invocation.getArgument(0);
+      for (Product product : chunk) {
+        product.setId(Long.parseLong(product.getName().substring(8)) + 1);
+      }
+      return chunk;
+    });
+
+    List<BulkItemResult> results = productBulkService.createProducts(products);
+
+    assertEquals(products.size(), results.size());
+    assertTrue(results.stream().allMatch(result -> result.getStatus() == Status.CREATED));
+    assertEquals(ProductBulkService.CHUNK_SIZE, results.get(ProductBulkService.CHUNK_SIZE).getIndex());
+    assertEquals(ProductBulkService.CHUNK_SIZE + 1L, results.get(ProductBulkService.CHUNK_SIZE).getId());
+    verify(productRepository, times(2)).saveAll(anyList());
+    verify(transactionManager, times(2)).commit(any());
+    verify(entityManager, times(2)).clear();
+    verify(changeRepository).appendSnapshots(eq(ProductChange.Type.CREATED),
+        eq(List.of(ProductBulkService.CHUNK_SIZE + 1L)), any());
+  }
+
+  @Test
+  void testCreateProducts_InvalidItemReported() {
+    when(productRepository.saveAll(anyList())).thenAnswer(invocation -> {
+      List<Product> chunk = invocation.getArgument(0);
+      chunk.forEach(product -> product.setId(7));
+      return chunk;
+    });
+
+    List<BulkItemResult> results = productBulkService.createProducts(List.of(
+        new Product(0, " ", 1.0),
+        new Product(42, "Valid", 2.0)));
+
+    assertEquals(Status.FAILED, results.get(0).getStatus());
+    assertEquals("name is required", results.get(0).getError());
+    assertEquals(Status.CREATED, results.get(1).getStatus());
+    assertEquals(7L, results.get(1).getId());
+  }
+
+  @Test
+  void testCreateProducts_FailedChunkRetriedPerItem() {
+    when(productRepository.saveAll(anyList())).thenAnswer(invocation -> {
+      List<Product> chunk = invocation.getArgument(0);
+      if (chunk.stream().anyMatch(product -> product.getName().equals("Duplicate"))) {
+        throw new DataIntegrityViolationException("duplicate key value violates unique constraint");
+      }
+      chunk.forEach(product -> product.setId(1));
+      return chunk;
+    });
+
+    List<BulkItemResult> results = productBulkService.createProducts(List.of(
+        new Product(0, "Fresh", 1.0),
+        new Product(0, "Duplicate", 2.0)));
+
+    assertEquals(Status.CREATED, results.get(0).getStatus());
+    assertEquals(Status.FAILED, results.get(1).getStatus());
+    assertEquals(1, results.get(1).getIndex());
+    assertEquals("duplicate key value violates unique constraint", results.get(1).getError());
+    verify(transactionManager, times(2)).rollback(any());
+  }
+
+  @Test
+  void testCreateProducts_TransientFailureStopsWithCompletedItems() {
+    List<Product> products = IntStream.range(0, ProductBulkService.CHUNK_SIZE + 2)
+        .mapToObj(i -> new Product(0, "Product " + i, i))
+        .toList();
+    when(productRepository.saveAll(anyList())).thenAnswer(invocation -> {
+      List<Product> chunk = invocation.getArgument(0);
+      chunk.forEach(product -> product.setId(1));
+      return chunk;
+    }).thenThrow(new DataAccessResourceFailureException("Connection refused"));
+
+    BulkWriteInterruptedException e = assertThrows(BulkWriteInterruptedException.class,
+        () -> productBulkService.createProducts(products));
+
+    assertEquals(ProductBulkService.CHUNK_SIZE, e.getCompleted().size());
+    assertTrue(e.getCompleted().stream().allMatch(result -> result.getStatus() == Status.CREATED));
+    // Not replayed item by item: the failure was not the items' fault
+    verify(productRepository, times(2)).saveAll(anyList());
+  }
+
+  @Test
+  void testUpdateProducts() {
+    Product existing = new Product(1, "Old", 1.0);
+    when(productRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(existing));
+
+    List<BulkItemResult> results = productBulkService.updateProducts(List.of(
+        new ProductUpdate(1L, "New", 5.0),
+        new ProductUpdate(2L, "Missing", 6.0)));
+
+    assertEquals(Status.UPDATED, results.get(0).getStatus());
+    assertEquals(Status.NOT_FOUND, results.get(1).getStatus());
+    assertEquals("New", existing.getName());
+    assertEquals(5.0, existing.getPrice());
+    verify(productRepository, times(1)).flush();
+    verify(productCache, times(1)).evict(1L);
+  }
+
+  @Test
+  void testUpdateProducts_MissingFieldsKept() {
+    Product renamed = new Product(1, "Old", 9.5);
+    Product repriced = new Product(2, "Kept", 3.0);
+    when(productRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(renamed, repriced));
+
+    List<BulkItemResult> results = productBulkService.updateProducts(List.of(
+        new ProductUpdate(1L, "New", null),
+        new ProductUpdate(2L, null, 4.0),
+        new ProductUpdate(null, "No id", 1.0)));
+
+    assertEquals(Status.UPDATED, results.get(0).getStatus());
+    assertEquals("New", renamed.getName());
+    assertEquals(9.5, renamed.getPrice());
+    assertEquals(Status.UPDATED, results.get(1).getStatus());
+    assertEquals("Kept", repriced.getName());
+    assertEquals(4.0, repriced.getPrice());
+    assertEquals(Status.FAILED, results.get(2).getStatus());
+    assertEquals("id is required", results.get(2).getError());
+  }
+
+  @Test
+  void testSoftDeleteProducts() {
+    Product live = new Product(1, "Live", 1.0);
+    Product deleted = new Product(2, "Deleted", 1.0);
+    deleted.setDeletedAt(java.time.LocalDateTime.now());
+    when(productRepository.findAllById(List.of(1L, 2L, 1L))).thenReturn(List.of(live, deleted));
+
+    List<BulkItemResult> results = productBulkService.softDeleteProducts(List.of(1L, 2L, 1L));
+
+    assertEquals(Status.DELETED, results.get(0).getStatus());
+    assertEquals(Status.NOT_FOUND, results.get(1).getStatus());
+    assertEquals(Status.NOT_FOUND, results.get(2).getStatus());
+    assertTrue(live.isDeleted());
+    verify(productCache, times(1)).evict(1L);
+  }
+
+  @Test
+  void testWithoutTransactionManager() {
+    productBulkService = new ProductBulkService(productRepository, productCache, changeRepository, null, null);
+    Product existing = new Product(1, "Old", 1.0);
+    when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(existing));
+
+    List<BulkItemResult> results = productBulkService.updateProducts(List.of(new ProductUpdate(1L, "New", 5.0)));
+
+    assertEquals(Status.UPDATED, results.get(0).getStatus());
+    verify(productRepository, times(1)).saveAll(List.of(existing));
+    verifyNoInteractions(transactionManager, entityManager);
+  }
+
+  @Test
+  void testTooManyItemsRejected() {
+    List<Long> ids = new ArrayList<>();
+    for (long i = 0; i <= ProductBulkService.MAX_ITEMS; i++) {
+      ids.add(i);
+    }
+
+    assertThrows(IllegalArgumentException.class, () -> productBulkService.softDeleteProducts(ids));
+    verifyNoInteractions(productRepository);
+  }
+}
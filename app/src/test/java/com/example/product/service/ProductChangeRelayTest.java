@@ -0,0 +1,118 @@
+package com.example.product.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import com.example.product.cache.NoOpProductCache;
+import com.example.product.component.ProductChangeComponent;
+import com.example.product.component.ProductComponent;
+import com.example.product.model.Product;
+import com.example.product.model.ProductChange;
+
+// Writes through ProductService land in the in-memory outbox; the relay numbers and publishes them
+class ProductChangeRelayTest {
+
+  private ProductComponent productComponent;
+  private ProductChangeComponent changeComponent;
+  private ProductService productService;
+  private ProductChangeFeed changeFeed;
+  private ProductChangeRelay relay;
+
+  @BeforeEach
+  void setUp() {
+    productComponent = new ProductComponent();
+    changeComponent = new ProductChangeComponent(productComponent);
+    productService = new ProductService(productComponent, new NoOpProductCache(), changeComponent);
+    changeFeed = new ProductChangeFeed(changeComponent, Duration.ofSeconds(5));
+    relay = new ProductChangeRelay(changeComponent, changeFeed, null, 2, Duration.ofDays(7));
+  }
+
+  @Test
+  void testWritesArePublishedInOrderWithConsecutiveSeqs() throws Exception {
+    Product created = productService.save(new Product(0, "Monitor", 200.0));
+    productService.updateProduct(created.getId(), new Product(0, "Monitor", 180.0), null);
+    productService.softDelete(created.getId());
+
+    // Nothing is visible until the relay has run
+    assertTrue(changeFeed.changesAfter(0, 10, Duration.ZERO).get().isEmpty());
+    assertEquals(3, relay.relay());
+
+    List<ProductChange> changes = changeFeed.changesAfter(0, 10, Duration.ZERO).get();
+    assertEquals(List.of(1L, 2L, 3L), changes.stream().map(ProductChange::getSeq).toList());
+    assertEquals(List.of(ProductChange.Type.CREATED, ProductChange.Type.UPDATED, ProductChange.Type.DELETED),
+        changes.stream().map(ProductChange::getType).toList());
+    assertEquals(180.0, changes.get(1).getPrice());
+    assertEquals(3, changeFeed.currentSeq());
+    assertEquals(List.of(3L), changeFeed.changesAfter(2, 10, Duration.ZERO).get().stream()
+        .map(ProductChange::getSeq).toList());
+  }
+
+  @Test
+  void testHardDeleteRemovesASoftDeletedProduct() throws Exception {
+    Product created = productService.save(new Product(0, "Monitor", 200.0));
+    productService.softDelete(created.getId());
+
+    assertTrue(productService.hardDelete(created.getId()));
+    assertFalse(productComponent.findById(created.getId()).isPresent());
+    assertFalse(productService.hardDelete(created.getId()));
+
+    relay.relay();
+    assertEquals(List.of(ProductChange.Type.CREATED, ProductChange.Type.DELETED),
+        changeFeed.changesAfter(0, 10, Duration.ZERO).get().stream().map(ProductChange::getType).toList());
+  }
+
+  @Test
+  void testWaitingReaderIsCompletedByTheRelay() throws Exception {
+    CompletableFuture<List<ProductChange>> waiting = changeFeed.changesAfter(0, 10, Duration.ofSeconds(5));
+    assertFalse(waiting.isDone());
+    assertEquals(1, changeFeed.waiting());
+
+    productService.save(new Product(0, "Monitor", 200.0));
+    relay.relay();
+
+    List<ProductChange> changes = waiting.get();
+    assertEquals(1, changes.size());
+    assertEquals("Monitor", changes.get(0).getName());
+    assertEquals(0, changeFeed.waiting());
+  }
+
+  @Test
+  void testWaitEndsEmptyAfterTimeout() throws Exception {
+    assertTrue(changeFeed.changesAfter(0, 10, Duration.ofMillis(20)).get().isEmpty());
+    assertEquals(0, changeFeed.waiting());
+  }
+
+  @Test
+  void testPrunedHistoryIsReportedAsExpired() throws Exception {
+    for (int i = 0; i < 3; i++) {
+      productService.save(new Product(0, "Product " + i, i));
+    }
+    relay.relay();
+
+    relay = new ProductChangeRelay(changeComponent, changeFeed, null, 2, Duration.ofDays(-1));
+    // The newest row is kept so seq carries on from it
+    assertEquals(2, relay.prune());
+    assertEquals(3, changeFeed.currentSeq());
+
+    assertThrows(ProductChangesExpiredException.class, () -> changeFeed.changesAfter(1, 10, Duration.ZERO));
+    assertEquals(1, changeFeed.changesAfter(2, 10, Duration.ZERO).get().size());
+    assertThrows(IllegalArgumentException.class, () -> changeFeed.changesAfter(-1, 10, Duration.ZERO));
+  }
+
+  @Test
+  void testPublishedRowsCarryPublishTime() {
+    productService.save(new Product(0, "Monitor", 200.0));
+    LocalDateTime before = LocalDateTime.now();
+    relay.relay();
+    ProductChange change = changeComponent.findBySeqGreaterThanOrderBySeqAsc(0, Limit.of(1)).get(0);
+    assertFalse(change.getPublishedAt().isBefore(before));
+  }
+}
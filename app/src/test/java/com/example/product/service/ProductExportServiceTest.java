@@ -0,0 +1,69 @@
+package com.example.product.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.product.model.Product;
+import com.example.product.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+
+@ExtendWith(MockitoExtension.class)
+class ProductExportServiceTest {
+
+  @Mock
+  private ProductRepository productRepository;
+
+  @Mock
+  private EntityManager entityManager;
+
+  private ProductExportService productExportService;
+
+  @BeforeEach
+  void setUp() {
+    productExportService = new ProductExportService(productRepository, entityManager,
+        new ObjectMapper().findAndRegisterModules());
+  }
+
+  @Test
+  void testExportProducts() throws Exception {
+    Product product1 = new Product(1L, "Product 1", 100.0);
+    Product product2 = new Product(2L, "Product 2", 200.0);
+    when(productRepository.streamAllLive()).thenReturn(Stream.of(product1, product2));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    long count = productExportService.exportProducts(out);
+
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(2, count);
+    assertEquals(2, lines.length);
+    assertTrue(lines[0].startsWith("{\"id\":1,\"name\":\"Product 1\""));
+    assertTrue(lines[1].startsWith("{\"id\":2,\"name\":\"Product 2\""));
+    assertTrue(out.toString(StandardCharsets.UTF_8).endsWith("\n"));
+    verify(entityManager, times(1)).detach(product1);
+    verify(entityManager, times(1)).detach(product2);
+  }
+
+  @Test
+  void testExportProducts_Empty() throws Exception {
+    when(productRepository.streamAllLive()).thenReturn(Stream.empty());
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    long count = productExportService.exportProducts(out);
+
+    assertEquals(0, count);
+    assertEquals("", out.toString(StandardCharsets.UTF_8));
+    verify(entityManager, never()).detach(any());
+  }
+}
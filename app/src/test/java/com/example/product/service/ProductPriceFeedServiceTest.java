@@ -0,0 +1,133 @@
+package com.example.product.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.product.cache.ProductCache;
+import com.example.product.dto.PriceFeedResult;
+import com.example.product.model.ProductChange;
+import com.example.product.repository.ProductChangeRepository;
+import com.example.product.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith(MockitoExtension.class)
+class ProductPriceFeedServiceTest {
+
+  @Mock
+  private ProductRepository productRepository;
+
+  @Mock
+  private ProductCache productCache;
+
+  @Mock
+  private ProductChangeRepository changeRepository;
+
+  private final List<long[]> batches = new ArrayList<>();
+  private final List<double[]> prices = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    // Product 3 is "missing": its row count is 0
+    lenient().when(productRepository.updatePrices(any(), any(), any())).thenAnswer(invocation -> {
+      long[] ids = invocation.getArgument(0);
+      batches.add(ids);
+      prices.add(invocation.getArgument(1));
+      int[] counts = new int[ids.length];
+      for (int i = 0; i < ids.length; i++) {
+        counts[i] = ids[i] == 3 ? 0 : 1;
+      }
+      return counts;
+    });
+  }
+
+  private ProductPriceFeedService service(Duration window, int batchSize) {
+    return new ProductPriceFeedService(productRepository, productCache, changeRepository, null, new ObjectMapper(),
+        window, batchSize);
+  }
+
+  private static InputStream stream(String body) {
+    return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void testCoalescesWithinWindowAndSortsIds() throws Exception {
+    PriceFeedResult result = service(Duration.ofMinutes(1), 1000).apply(stream("""
+        {"id":2,"price":10.0}
+        {"id":1,"price":5.0}
+        {"id":2,"price":11.0}
+        {"id":3,"price":1.0}
+        {"id":2,"price":12.5}
+        """));
+
+    assertEquals(5, result.getReceived());
+    assertEquals(2, result.getApplied());
+    assertEquals(2, result.getCoalesced());
+    assertEquals(1, result.getSkipped());
+    assertEquals(0, result.getRejected());
+    assertEquals(1, result.getBatches());
+    assertArrayEquals(new long[] { 1, 2, 3 }, batches.get(0));
+    assertArrayEquals(new double[] { 5.0, 12.5, 1.0 }, prices.get(0));
+    verify(productCache).evict(1L);
+    verify(productCache).evict(2L);
+    verify(productCache, never()).evict(3L);
+    // Only the rows the batch changed are recorded in the outbox
+    verify(changeRepository).appendSnapshots(eq(ProductChange.Type.UPDATED), eq(List.of(1L, 2L)), any());
+  }
+
+  @Test
+  void testBatchSizeClosesWindowAndArraysAreAccepted() throws Exception {
+    PriceFeedResult result = service(Duration.ofMinutes(1), 2).apply(stream(
+        "[{\"id\":1,\"price\":1},{\"id\":2,\"price\":2},{\"id\":4,\"price\":4},{\"id\":5,\"price\":5},{\"id\":6,\"price\":6}]"));
+
+    assertEquals(3, result.getBatches());
+    assertEquals(5, result.getApplied());
+    assertArrayEquals(new long[] { 6 }, batches.get(2));
+  }
+
+  @Test
+  void testInvalidUpdatesRejected() throws Exception {
+    PriceFeedResult result = service(Duration.ofMinutes(1), 1000).apply(stream("""
+        {"id":1}
+        {"price":2.0}
+        {"id":2,"price":-1}
+        {"id":4,"price":4}
+        """));
+
+    assertEquals(4, result.getReceived());
+    assertEquals(3, result.getRejected());
+    assertEquals(1, result.getApplied());
+  }
+
+  @Test
+  void testMalformedStream() {
+    ProductPriceFeedService service = service(Duration.ZERO, 1000);
+
+    IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+        () -> service.apply(stream("{\"id\":1,\"price\":1}\n{\"id\":2,")));
+    assertTrue(e.getMessage().startsWith("Malformed price update after 1 updates (1 applied)"));
+  }
+
+  @Test
+  void testEmptyStreamWritesNothing() throws Exception {
+    PriceFeedResult result = service(Duration.ofMinutes(1), 1000).apply(stream(""));
+
+    assertEquals(0, result.getReceived());
+    assertEquals(0, result.getBatches());
+    verify(productRepository, never()).updatePrices(any(), any(), any());
+  }
+}
@@ -0,0 +1,52 @@
+package com.example.product.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.product.repository.ProductRepository;
+
+@ExtendWith(MockitoExtension.class)
+class ProductPurgeServiceTest {
+
+  @Mock
+  private ProductRepository productRepository;
+
+  @Test
+  void testPurgesInBatchesUntilShortBatch() {
+    ProductPurgeService purgeService = new ProductPurgeService(productRepository, Duration.ofDays(30), 100);
+    when(productRepository.purgeDeletedBefore(any(LocalDateTime.class), eq(100))).thenReturn(100, 100, 7);
+
+    assertEquals(207, purgeService.purge());
+
+    ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+    verify(productRepository, times(3)).purgeDeletedBefore(cutoff.capture(), eq(100));
+    assertEquals(1, cutoff.getAllValues().stream().distinct().count());
+    assertTrue(cutoff.getValue().isBefore(LocalDateTime.now().minusDays(29)));
+  }
+
+  @Test
+  void testNothingToPurge() {
+    ProductPurgeService purgeService = new ProductPurgeService(productRepository, Duration.ofDays(30), 100);
+    when(productRepository.purgeDeletedBefore(any(LocalDateTime.class), eq(100))).thenReturn(0);
+
+    assertEquals(0, purgeService.purge());
+    verify(productRepository, times(1)).purgeDeletedBefore(any(LocalDateTime.class), eq(100));
+  }
+
+  @Test
+  void testRejectsNonPositiveBatchSize() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new ProductPurgeService(productRepository, Duration.ofDays(30), 0));
+  }
+}
@@ -0,0 +1,115 @@
+package com.example.product.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+
+import com.example.product.cache.NoOpProductCache;
+import com.example.product.component.ProductChangeComponent;
+import com.example.product.component.ProductComponent;
+import com.example.product.model.Product;
+import com.example.product.model.ProductChange;
+
+// Many writers doing read-modify-write on one product; with the version check and a retry on
+// conflict every increment must survive.
+class ProductServiceConcurrencyTest {
+
+  private ProductChangeComponent changeComponent;
+  private ProductService productService;
+
+  @BeforeEach
+  void setUp() {
+    ProductComponent productComponent = new ProductComponent();
+    changeComponent = new ProductChangeComponent(productComponent);
+    productService = new ProductService(productComponent, new NoOpProductCache(), changeComponent);
+  }
+
+  @Test
+  void testNoLostUpdatesUnderContention() throws Exception {
+    int threads = 8;
+    int perThread = 250;
+    LongAdder conflicts = new LongAdder();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    for (int t = 0; t < threads; t++) {
+      executor.submit(() -> {
+        start.await();
+        for (int i = 0; i < perThread; i++) {
+          while (true) {
+            Product current = productService.findById(1L).get();
+            current.setPrice(current.getPrice() + 1);
+            try {
+              productService.updateProduct(1L, current, current.getVersion());
+              break;
+            } catch (OptimisticLockingFailureException e) {
+              conflicts.increment();
+            }
+          }
+        }
+        return null;
+      });
+    }
+    long started = System.nanoTime();
+    start.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+    long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+    Product result = productService.findById(1L).get();
+    assertEquals(1500.0 + threads * perThread, result.getPrice(), 0.001);
+    assertEquals(threads * perThread, result.getVersion());
+    System.out.printf("%d updates in %d ms (%d/s), %d conflicts retried%n", threads * perThread, elapsedMillis,
+        threads * perThread * 1000L / elapsedMillis, conflicts.sum());
+  }
+
+  @Test
+  void testStaleVersionIsRejected() {
+    Product current = productService.findById(1L).get();
+    productService.updateProduct(1L, current, current.getVersion());
+
+    assertThrows(OptimisticLockingFailureException.class,
+        () -> productService.updateProduct(1L, current, current.getVersion()));
+  }
+
+  // Last-writer-wins updates append after their write; however they interleave, the outbox has
+  // to end on the product's final state or a consumer replaying it keeps an older one
+  @Test
+  void testOutboxFollowsWriteOrder() throws Exception {
+    int threads = 8;
+    int perThread = 250;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    for (int t = 0; t < threads; t++) {
+      int thread = t;
+      executor.submit(() -> {
+        start.await();
+        for (int i = 0; i < perThread; i++) {
+          productService.updateProduct(1L, new Product(0, "Laptop", thread * perThread + i), null);
+        }
+        return null;
+      });
+    }
+    start.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+    List<ProductChange> changes = changeComponent.findBySeqIsNullOrderByIdAsc(Limit.of(threads * perThread));
+    assertEquals(threads * perThread, changes.size());
+    for (int i = 1; i < changes.size(); i++) {
+      assertTrue(changes.get(i).getVersion() >= changes.get(i - 1).getVersion());
+    }
+    Product result = productService.findById(1L).get();
+    assertEquals(result.getVersion(), changes.get(changes.size() - 1).getVersion());
+    assertEquals(result.getPrice(), changes.get(changes.size() - 1).getPrice());
+  }
+}
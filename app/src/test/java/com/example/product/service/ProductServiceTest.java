@@ -2,8 +2,14 @@ package com.example.product.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -13,9 +19,19 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 
+import com.example.product.cache.InMemoryProductCache;
+import com.example.product.cache.ProductCache;
+import com.example.product.dto.ProductPage;
+import com.example.product.dto.ProductPatch;
+import com.example.product.dto.SearchMode;
 import com.example.product.model.Product;
+import com.example.product.model.ProductChange;
+import com.example.product.repository.ProductChangeRepository;
 import com.example.product.repository.ProductRepository;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,6 +40,12 @@ class ProductServiceTest {
   @Mock
   private ProductRepository productRepository;
 
+  @Mock
+  private ProductChangeRepository changeRepository;
+
+  @Spy
+  private ProductCache productCache = new InMemoryProductCache(100, Duration.ofMinutes(5), Clock.systemUTC());
+
   @InjectMocks
   private ProductService productService;
 
@@ -44,7 +66,7 @@ class ProductServiceTest {
 
   @Test
   void testGetAllProducts() {
-    when(productRepository.findAll()).thenReturn(List.of(
+    when(productRepository.findByDeletedAtIsNull()).thenReturn(List.of(
         new Product(1, "Product 1", 100.0),
         new Product(2, "Product 2", 200.0)));
 
@@ -59,28 +81,163 @@ class ProductServiceTest {
     assertEquals(200.0, products.get(1).getPrice());
   }
 
+  @Test
+  void testGetCatalogSeq() {
+    when(changeRepository.findMaxSeq()).thenReturn(null, 42L);
+
+    assertEquals(0, productService.getCatalogSeq());
+    assertEquals(42, productService.getCatalogSeq());
+    verifyNoInteractions(productRepository);
+  }
+
+  @Test
+  void testGetProductPage_FirstPageWithNext() {
+    when(productRepository.findByDeletedAtIsNullAndIdGreaterThanAndNameStartingWithAndPriceBetweenOrderByIdAsc(
+        0L, "", -Double.MAX_VALUE, Double.MAX_VALUE, Limit.of(3)))
+        .thenReturn(List.of(product1, product2, new Product(3L, "Product 3", 300.0)));
+
+    ProductPage page = productService.getProductPage(null, 2, null, null, null);
+
+    assertEquals(2, page.getProducts().size());
+    assertEquals(2L, page.getProducts().get(1).getId());
+    assertEquals(2L, ProductPage.decodeCursor(page.getNext()));
+  }
+
+  @Test
+  void testGetProductPage_LastPageWithFilters() {
+    when(productRepository.findByDeletedAtIsNullAndIdGreaterThanAndNameStartingWithAndPriceBetweenOrderByIdAsc(
+        1L, "Prod", 150.0, 250.0, Limit.of(ProductService.DEFAULT_PAGE_SIZE + 1)))
+        .thenReturn(List.of(product2));
+
+    ProductPage page = productService.getProductPage(ProductPage.encodeCursor(1L),
+        ProductService.DEFAULT_PAGE_SIZE, "Prod", 150.0, 250.0);
+
+    assertEquals(List.of(product2), page.getProducts());
+    assertNull(page.getNext());
+  }
+
+  @Test
+  void testGetProductPage_SizeIsCapped() {
+    when(productRepository.findByDeletedAtIsNullAndIdGreaterThanAndNameStartingWithAndPriceBetweenOrderByIdAsc(
+        0L, "", -Double.MAX_VALUE, Double.MAX_VALUE, Limit.of(ProductService.MAX_PAGE_SIZE + 1)))
+        .thenReturn(List.of());
+
+    ProductPage page = productService.getProductPage(null, 100_000, null, null, null);
+
+    assertTrue(page.getProducts().isEmpty());
+    assertNull(page.getNext());
+  }
+
   @Test
   void testFindById_ProductFoundAndNotDeleted() {
-    when(productRepository.findAll()).thenReturn(List.of(product1, product2));
+    when(productRepository.findByIdAndDeletedAtIsNull(1L)).thenReturn(Optional.of(product1));
     Optional<Product> result = productService.findById(1L);
     assertTrue(result.isPresent());
     assertEquals("Product 1", result.get().getName());
     assertFalse(result.get().isDeleted());
+    verify(productRepository, never()).findAll();
   }
 
   @Test
   void testFindById_ProductFoundButDeleted() {
-    product2.setDeletedAt(NOW);
-    when(productRepository.findAll()).thenReturn(List.of(product1, product2));
+    when(productRepository.findByIdAndDeletedAtIsNull(2L)).thenReturn(Optional.empty());
     Optional<Product> result = productService.findById(2L);
     assertFalse(result.isPresent());
   }
 
   @Test
   void testFindById_ProductNotFound() {
-    when(productRepository.findAll()).thenReturn(List.of(product1, product2));
+    when(productRepository.findByIdAndDeletedAtIsNull(3L)).thenReturn(Optional.empty());
     Optional<Product> result = productService.findById(3L);
     assertFalse(result.isPresent());
+    verify(productRepository, times(1)).findByIdAndDeletedAtIsNull(3L);
+  }
+
+  @Test
+  void testFindById_ServedFromCache() {
+    when(productRepository.findByIdAndDeletedAtIsNull(1L)).thenReturn(Optional.of(product1));
+
+    productService.findById(1L);
+    Optional<Product> result = productService.findById(1L);
+
+    assertEquals("Product 1", result.get().getName());
+    verify(productRepository, times(1)).findByIdAndDeletedAtIsNull(1L);
+    assertEquals(1, productCache.stats().getHits());
+  }
+
+  // A write commits and evicts while the read is loading: the row it loaded is already stale
+  @Test
+  void testFindById_LoadRacingAWriteIsNotCached() {
+    when(productRepository.findByIdAndDeletedAtIsNull(1L)).thenAnswer(invocation -> {
+      productCache.evict(1L);
+      return Optional.of(new Product(1L, "Product 1", 100.0));
+    }).thenReturn(Optional.of(new Product(1L, "Product 1", 120.0)));
+
+    assertEquals(100.0, productService.findById(1L).get().getPrice());
+    assertEquals(120.0, productService.findById(1L).get().getPrice());
+    assertEquals(120.0, productService.findById(1L).get().getPrice());
+
+    verify(productRepository, times(2)).findByIdAndDeletedAtIsNull(1L);
+  }
+
+  @Test
+  void testFindByName_ServedFromCacheAfterFindById() {
+    when(productRepository.findByIdAndDeletedAtIsNull(1L)).thenReturn(Optional.of(product1));
+
+    productService.findById(1L);
+    Optional<Product> result = productService.findByName("Product 1");
+
+    assertEquals(1L, result.get().getId());
+    verify(productRepository, never()).findByName(any());
+  }
+
+  @Test
+  void testFindByName_DeletedProductNotReturned() {
+    product1.setDeletedAt(NOW);
+    when(productRepository.findByName("Product 1")).thenReturn(Optional.of(product1));
+
+    assertFalse(productService.findByName("Product 1").isPresent());
+  }
+
+  @Test
+  void testNoStaleReadAfterUpdate() {
+    Product updated = new Product(1L, "Updated Product", 150.0);
+    when(productRepository.findByIdAndDeletedAtIsNull(1L)).thenReturn(Optional.of(product1), Optional.of(updated));
+    when(productRepository.updateLive(eq(1L), isNull(), eq("Updated Product"), eq(150.0), any()))
+        .thenReturn(Optional.of(updated));
+
+    assertEquals("Product 1", productService.findById(1L).get().getName());
+    assertEquals("Product 1", productService.findByName("Product 1").get().getName());
+
+    productService.updateProduct(1L, updatedProductData);
+
+    assertEquals("Updated Product", productService.findById(1L).get().getName());
+    assertEquals(150.0, productService.findById(1L).get().getPrice());
+    when(productRepository.findByName("Product 1")).thenReturn(Optional.empty());
+    assertFalse(productService.findByName("Product 1").isPresent());
+  }
+
+  @Test
+  void testNoStaleReadAfterSoftDelete() {
+    when(productRepository.findByIdAndDeletedAtIsNull(1L)).thenReturn(Optional.of(product1), Optional.empty());
+    when(productRepository.findById(1L)).thenReturn(Optional.of(product1));
+
+    assertTrue(productService.findById(1L).isPresent());
+    productService.softDelete(1L);
+
+    assertFalse(productService.findById(1L).isPresent());
+  }
+
+  @Test
+  void testNoStaleReadAfterHardDelete() {
+    when(productRepository.findByIdAndDeletedAtIsNull(1L)).thenReturn(Optional.of(product1), Optional.empty());
+    when(productRepository.hardDeleteById(1L)).thenReturn(1);
+
+    assertTrue(productService.findById(1L).isPresent());
+    productService.hardDelete(1L);
+
+    assertFalse(productService.findById(1L).isPresent());
+    verify(productCache, times(1)).evict(1L);
   }
 
   @Test
@@ -92,29 +249,105 @@ class ProductServiceTest {
     assertEquals(product1.getName(), savedProduct.getName());
     assertEquals(product1.getPrice(), savedProduct.getPrice());
     verify(productRepository, times(1)).save(product1);
+    verify(changeRepository, times(1)).save(argThat(change -> change.getType() == ProductChange.Type.UPDATED
+        && change.getProductId() == product1.getId()));
   }
 
   @Test
   void testUpdateProduct_ProductExists() {
-    when(productRepository.findById(1L)).thenReturn(Optional.of(existingProduct));
-    when(productRepository.save(existingProduct)).thenReturn(existingProduct);
+    Product stored = new Product(1L, "Updated Product", 150.0);
+    stored.setVersion(1L);
+    when(productRepository.updateLive(eq(1L), isNull(), eq("Updated Product"), eq(150.0), any()))
+        .thenReturn(Optional.of(stored));
     Product updatedProduct = productService.updateProduct(1L, updatedProductData);
     assertNotNull(updatedProduct);
     assertEquals("Updated Product", updatedProduct.getName());
     assertEquals(150.0, updatedProduct.getPrice());
-    verify(productRepository, times(1)).findById(1L);
-    verify(productRepository, times(1)).save(existingProduct);
+    assertEquals(1L, updatedProduct.getVersion());
+    verify(productRepository, never()).findById(any());
+    verify(productRepository, never()).save(any());
+    verify(changeRepository, times(1)).save(argThat(change -> change.getType() == ProductChange.Type.UPDATED
+        && change.getVersion() == 1L && "Updated Product".equals(change.getName())));
   }
 
   @Test
   void testUpdateProduct_ProductNotFound() {
-    when(productRepository.findById(1L)).thenReturn(Optional.empty());
-    RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+    when(productRepository.updateLive(eq(1L), isNull(), any(), anyDouble(), any())).thenReturn(Optional.empty());
+    RuntimeException exception = assertThrows(ProductNotFoundException.class, () -> {
       productService.updateProduct(1L, updatedProductData);
     });
     assertEquals("Product not found", exception.getMessage());
-    verify(productRepository, times(1)).findById(1L);
-    verify(productRepository, times(0)).save(any());
+    verify(productRepository, never()).findByIdAndDeletedAtIsNull(anyLong());
+    verify(productRepository, never()).save(any());
+    verifyNoInteractions(changeRepository);
+  }
+
+  @Test
+  void testUpdateProduct_StaleVersionConflicts() {
+    existingProduct.setVersion(4L);
+    when(productRepository.updateLive(eq(1L), eq(3L), any(), anyDouble(), any())).thenReturn(Optional.empty());
+    when(productRepository.findByIdAndDeletedAtIsNull(1L)).thenReturn(Optional.of(existingProduct));
+    assertThrows(OptimisticLockingFailureException.class,
+        () -> productService.updateProduct(1L, updatedProductData, 3L));
+  }
+
+  @Test
+  void testUpdateProduct_VersionedButDeletedIsNotFound() {
+    when(productRepository.updateLive(eq(1L), eq(3L), any(), anyDouble(), any())).thenReturn(Optional.empty());
+    when(productRepository.findByIdAndDeletedAtIsNull(1L)).thenReturn(Optional.empty());
+    assertThrows(ProductNotFoundException.class, () -> productService.updateProduct(1L, updatedProductData, 3L));
+  }
+
+  @Test
+  void testSaveNewProductClearsVersion() {
+    Product fresh = new Product(0L, "Fresh", 1.0);
+    fresh.setVersion(7L);
+    when(productRepository.save(fresh)).thenReturn(fresh);
+    productService.save(fresh);
+    assertNull(fresh.getVersion());
+    verify(changeRepository, times(1)).save(argThat(change -> change.getType() == ProductChange.Type.CREATED));
+  }
+
+  @Test
+  void testPatchProduct_PriceOnlyLeavesNameOut() {
+    Product patched = new Product(1L, "Product 1", 120.0);
+    when(productRepository.patchPrice(eq(1L), isNull(), eq(120.0), any())).thenReturn(Optional.of(patched));
+
+    assertSame(patched, productService.patchProduct(1L, new ProductPatch(null, 120.0, null), null));
+    verify(productRepository, never()).patchLive(anyLong(), any(), any(), any(), any());
+    verify(productCache, times(1)).evict(1L);
+  }
+
+  @Test
+  void testPatchProduct_UnchangedIsNotWritten() {
+    product1.setVersion(2L);
+    when(productRepository.patchLive(eq(1L), eq(2L), eq("Product 1"), isNull(), any())).thenReturn(Optional.empty());
+    when(productRepository.findByIdAndDeletedAtIsNull(1L)).thenReturn(Optional.of(product1));
+
+    assertSame(product1, productService.patchProduct(1L, new ProductPatch("Product 1", null, null), 2L));
+    verify(productCache, never()).evict(anyLong());
+    verifyNoInteractions(changeRepository);
+  }
+
+  @Test
+  void testPatchProduct_EmptyPatchOnlyReads() {
+    when(productRepository.findByIdAndDeletedAtIsNull(1L)).thenReturn(Optional.of(product1));
+
+    assertSame(product1, productService.patchProduct(1L, new ProductPatch(null, null, null), null));
+    verify(productRepository, never()).patchPrice(anyLong(), any(), anyDouble(), any());
+    verify(productRepository, never()).patchLive(anyLong(), any(), any(), any(), any());
+  }
+
+  @Test
+  void testPatchProduct_StaleVersionAndMissingProduct() {
+    product1.setVersion(5L);
+    when(productRepository.patchPrice(anyLong(), eq(4L), anyDouble(), any())).thenReturn(Optional.empty());
+    when(productRepository.findByIdAndDeletedAtIsNull(1L)).thenReturn(Optional.of(product1));
+    when(productRepository.findByIdAndDeletedAtIsNull(9L)).thenReturn(Optional.empty());
+
+    ProductPatch patch = new ProductPatch(null, 1.0, null);
+    assertThrows(OptimisticLockingFailureException.class, () -> productService.patchProduct(1L, patch, 4L));
+    assertThrows(ProductNotFoundException.class, () -> productService.patchProduct(9L, patch, 4L));
   }
 
   @Test
@@ -124,6 +357,7 @@ class ProductServiceTest {
     assertNotNull(product1.getDeletedAt());
     assertTrue(product1.getDeletedAt().isBefore(LocalDateTime.now()));
     verify(productRepository, times(1)).save(product1);
+    verify(changeRepository, times(1)).save(argThat(change -> change.getType() == ProductChange.Type.DELETED));
   }
 
   @Test
@@ -131,18 +365,50 @@ class ProductServiceTest {
     when(productRepository.findById(1L)).thenReturn(Optional.empty());
     productService.softDelete(1L);
     verify(productRepository, times(0)).save(any());
+    verifyNoInteractions(changeRepository);
   }
 
   @Test
   void testHardDelete_ProductExists() {
-    productService.hardDelete(1L);
-    verify(productRepository, times(1)).deleteById(1L);
+    when(productRepository.findByIdAndDeletedAtIsNull(1L)).thenReturn(Optional.of(product1));
+    when(productRepository.hardDeleteById(1L)).thenReturn(1);
+    assertTrue(productService.hardDelete(1L));
+    verify(changeRepository, times(1)).save(argThat(change -> change.getType() == ProductChange.Type.DELETED
+        && "Product 1".equals(change.getName())));
   }
 
   @Test
   void testHardDelete_ProductNotFound() {
-    doNothing().when(productRepository).deleteById(1L);
-    productService.hardDelete(1L);
-    verify(productRepository, times(1)).deleteById(1L);
+    when(productRepository.hardDeleteById(1L)).thenReturn(0);
+    assertFalse(productService.hardDelete(1L));
+    verifyNoInteractions(changeRepository);
+  }
+
+  @Test
+  void testSearchPrefixEscapesLikeWildcards() {
+    when(productRepository.searchByNamePrefix("50\\%\\_off%", 20)).thenReturn(List.of(product1));
+
+    assertEquals(List.of(product1), productService.search("  50%_OFF ", SearchMode.PREFIX, 20));
+  }
+
+  @Test
+  void testSearchSubstringAndLimitClamp() {
+    when(productRepository.searchByNameSubstring("%duct%", ProductService.MAX_PAGE_SIZE)).thenReturn(List.of(product1, product2));
+
+    assertEquals(2, productService.search("DUCT", SearchMode.SUBSTRING, 5000).size());
+    assertThrows(IllegalArgumentException.class, () -> productService.search("du", SearchMode.SUBSTRING, 20));
+  }
+
+  @Test
+  void testSearchFullTextPassesQueryThrough() {
+    when(productRepository.searchByNameFullText("gaming laptop", 1)).thenReturn(List.of(product1));
+
+    assertEquals(List.of(product1), productService.search("gaming laptop", SearchMode.FULLTEXT, 0));
+  }
+
+  @Test
+  void testSearchRejectsEmptyQuery() {
+    assertThrows(IllegalArgumentException.class, () -> productService.search("   ", SearchMode.PREFIX, 20));
+    verifyNoInteractions(productRepository);
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,95 @@
+package com.example.product.benchmark;
+
+import com.example.product.model.Product;
+import com.example.product.repository.ProductChangeRepository;
+import com.example.product.repository.ProductRepository;
+
+import org.springframework.data.domain.Limit;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+
+// Synthetic catalog plus a ProductRepository over it, so the service layer can be measured
+// without a database. Only the query methods the service calls on its read paths are implemented.
+final class Catalog {
+
+  private Catalog() {
+  }
+
+  static List<Product> products(int size) {
+    List<Product> products = new ArrayList<>(size);
+    for (int i = 1; i <= size; i++) {
+      products.add(new Product(i, "Product " + i, 1.0 + (i % 1000)));
+    }
+    return products;
+  }
+
+  static ProductRepository repository(List<Product> products) {
+    NavigableMap<Long, Product> byId = new TreeMap<>();
+    for (Product product : products) {
+      byId.put(product.getId(), product);
+    }
+    return (ProductRepository) Proxy.newProxyInstance(ProductRepository.class.getClassLoader(),
+        new Class<?>[] { ProductRepository.class }, (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "findByIdAndDeletedAtIsNull":
+              return Optional.ofNullable(byId.get((Long) args[0])).filter(p -> !p.isDeleted());
+            case "findByDeletedAtIsNull":
+              return byId.values().stream().filter(p -> !p.isDeleted()).toList();
+            case "findByDeletedAtIsNullAndIdGreaterThanAndNameStartingWithAndPriceBetweenOrderByIdAsc":
+              return page(byId, (Long) args[0], (String) args[1], (Double) args[2], (Double) args[3],
+                  (Limit) args[4]);
+            case "findAll":
+              return new ArrayList<>(byId.values());
+            case "hashCode":
+              return System.identityHashCode(proxy);
+            case "equals":
+              return proxy == args[0];
+            case "toString":
+              return "CatalogRepository[" + byId.size() + "]";
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        });
+  }
+
+  // An outbox that accepts every append and keeps nothing, so long write benchmarks do not grow it
+  static ProductChangeRepository discardedChanges() {
+    return (ProductChangeRepository) Proxy.newProxyInstance(ProductChangeRepository.class.getClassLoader(),
+        new Class<?>[] { ProductChangeRepository.class }, (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "save":
+              return args[0];
+            case "appendSnapshots":
+              return 0;
+            case "hashCode":
+              return System.identityHashCode(proxy);
+            case "equals":
+              return proxy == args[0];
+            case "toString":
+              return "DiscardedChanges";
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        });
+  }
+
+  private static List<Product> page(NavigableMap<Long, Product> byId, long afterId, String namePrefix,
+      double minPrice, double maxPrice, Limit limit) {
+    List<Product> page = new ArrayList<>(limit.max());
+    for (Product product : byId.tailMap(afterId, false).values()) {
+      if (!product.isDeleted() && product.getName().startsWith(namePrefix)
+          && product.getPrice() >= minPrice && product.getPrice() <= maxPrice) {
+        page.add(product);
+        if (page.size() == limit.max()) {
+          break;
+        }
+      }
+    }
+    return page;
+  }
+}
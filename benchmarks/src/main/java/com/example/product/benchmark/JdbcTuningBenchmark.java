@@ -0,0 +1,122 @@
+package com.example.product.benchmark;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// The statements the API issues most, run through a Hikari pool configured either like the
+// default profile or like the "prod" profile. Needs the PostgreSQL database the app uses;
+// override with -Djdbc.url, -Djdbc.user and -Djdbc.password. Inserted rows are rolled back.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JdbcTuningBenchmark {
+
+  private static final String FIND_BY_ID = "SELECT id, name, price, created_at, updated_at, deleted_at, version "
+      + "FROM products WHERE id = ? AND deleted_at IS NULL";
+  private static final String INSERT = "INSERT INTO products (id, name, price, created_at, updated_at, version) "
+      + "VALUES (nextval('products_id_seq'), ?, ?, now(), now(), 0)";
+  private static final AtomicLong NAMES = new AtomicLong();
+
+  @Param({ "defaults", "prod" })
+  private String settings;
+
+  @Param({ "100" })
+  private int batchSize;
+
+  private HikariDataSource dataSource;
+  private long[] ids;
+
+  @Setup(Level.Trial)
+  public void setUp() throws SQLException {
+    HikariConfig config = new HikariConfig();
+    config.setJdbcUrl(System.getProperty("jdbc.url", "jdbc:postgresql://localhost:5432/springboot_poc"));
+    config.setUsername(System.getProperty("jdbc.user", "postgres"));
+    config.setPassword(System.getProperty("jdbc.password", "admin"));
+    if ("prod".equals(settings)) {
+      config.setMaximumPoolSize(20);
+      config.setMinimumIdle(20);
+      config.addDataSourceProperty("prepareThreshold", "1");
+      config.addDataSourceProperty("preparedStatementCacheQueries", "512");
+      config.addDataSourceProperty("preparedStatementCacheSizeMiB", "8");
+      config.addDataSourceProperty("reWriteBatchedInserts", "true");
+    }
+    dataSource = new HikariDataSource(config);
+
+    List<Long> live = new ArrayList<>();
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement(
+            "SELECT id FROM products WHERE deleted_at IS NULL ORDER BY id LIMIT 10000");
+        ResultSet rows = statement.executeQuery()) {
+      while (rows.next()) {
+        live.add(rows.getLong(1));
+      }
+    }
+    if (live.isEmpty()) {
+      throw new IllegalStateException("No products to read; create some first");
+    }
+    ids = live.stream().mapToLong(Long::longValue).toArray();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    dataSource.close();
+  }
+
+  // Borrow, prepare, execute, return: what one repository call costs
+  @Benchmark
+  public String findById() throws SQLException {
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement(FIND_BY_ID)) {
+      statement.setLong(1, ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+      try (ResultSet rows = statement.executeQuery()) {
+        return rows.next() ? rows.getString(2) : null;
+      }
+    }
+  }
+
+  // One Hibernate insert batch, as the bulk and ingest paths send it
+  @Benchmark
+  public int[] insertBatch() throws SQLException {
+    try (Connection connection = dataSource.getConnection()) {
+      connection.setAutoCommit(false);
+      try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+        for (int i = 0; i < batchSize; i++) {
+          statement.setString(1, "jdbc-benchmark-" + NAMES.incrementAndGet());
+          statement.setDouble(2, i);
+          statement.addBatch();
+        }
+        return statement.executeBatch();
+      } finally {
+        connection.rollback();
+        connection.setAutoCommit(true);
+      }
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package com.example.product.benchmark;
+
+import java.time.Instant;
+
+import org.springframework.http.HttpStatus;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// The ApiResponse/ApiErrorResponse pair as it was before the envelope got its own serializer:
+// bean-serialized, a new Meta and Instant per response and a new empty array for "error".
+// Kept only as the baseline for SerializationBenchmark.
+public class LegacyApiResponse<T> {
+  private Meta meta;
+  private T data;
+  private Object error;
+
+  public LegacyApiResponse(HttpStatus status, String message, T data, Object error) {
+    this.meta = new Meta(status, message, Instant.now());
+    this.data = data;
+    this.error = error == null ? new Object[] {} : error;
+  }
+
+  public Meta getMeta() {
+    return meta;
+  }
+
+  public T getData() {
+    return data;
+  }
+
+  public Object getError() {
+    return error;
+  }
+
+  static class Meta {
+    private HttpStatus status;
+    private String message;
+    private Instant timestamp;
+
+    Meta(HttpStatus status, String message, Instant timestamp) {
+      this.status = status;
+      this.message = message;
+      this.timestamp = timestamp;
+    }
+
+    public HttpStatus getstatus() {
+      return status;
+    }
+
+    public String getMessage() {
+      return message;
+    }
+
+    public Instant getTimestamp() {
+      return timestamp;
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getNext() {
+      return null;
+    }
+  }
+
+  public static class Error {
+    private String type;
+    private String title;
+    private String detail;
+    private HttpStatus status;
+    private Instant timestamp;
+
+    public Error(String type, String title, String detail, HttpStatus status) {
+      this.type = type;
+      this.title = title;
+      this.detail = detail;
+      this.status = status;
+      this.timestamp = Instant.now();
+    }
+
+    public String getType() {
+      return type;
+    }
+
+    public String getTitle() {
+      return title;
+    }
+
+    public String getDetail() {
+      return detail;
+    }
+
+    public HttpStatus getStatus() {
+      return status;
+    }
+
+    public Instant getTimestamp() {
+      return timestamp;
+    }
+  }
+}
@@ -0,0 +1,126 @@
+package com.example.product.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Closed-loop HTTP load generator for comparing server modes, e.g. the default Tomcat
+// pool against the "virtual" profile. Each client loops GET requests until the duration
+// elapses; throughput and latency percentiles are printed and written as JSON. Requests the
+// app sheds (429 and 503) are counted apart from errors and left out of the latencies.
+//
+// java -cp target/benchmarks.jar com.example.product.benchmark.LoadTest \
+//     http://localhost:8080/api/products/1 <clients> <seconds> <label>
+public class LoadTest {
+
+  public static void main(String[] args) throws Exception {
+    URI uri = URI.create(args.length > 0 ? args[0] : "http://localhost:8080/api/products/1");
+    int clients = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+    Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 30);
+    String label = args.length > 3 ? args[3] : "run";
+
+    HttpClient client = HttpClient.newBuilder()
+        .executor(Executors.newVirtualThreadPerTaskExecutor())
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+
+    long start = System.nanoTime();
+    long deadline = start + duration.toNanos();
+    List<Future<ClientResult>> futures = new ArrayList<>(clients);
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < clients; i++) {
+        futures.add(executor.submit(() -> runClient(client, request, deadline)));
+      }
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+
+    long errors = 0;
+    long shed = 0;
+    long count = 0;
+    for (Future<ClientResult> future : futures) {
+      ClientResult result = future.get();
+      errors += result.errors;
+      shed += result.shed;
+      count += result.size;
+    }
+    long[] latencies = new long[(int) count];
+    int offset = 0;
+    for (Future<ClientResult> future : futures) {
+      ClientResult result = future.get();
+      System.arraycopy(result.latencies, 0, latencies, offset, result.size);
+      offset += result.size;
+    }
+    Arrays.sort(latencies);
+
+    String json = String.format(Locale.ROOT,
+        "{\"label\":\"%s\",\"uri\":\"%s\",\"clients\":%d,\"seconds\":%.1f,\"requests\":%d,\"errors\":%d,\"shed\":%d,"
+            + "\"throughput\":%.1f,\"p50Ms\":%.3f,\"p95Ms\":%.3f,\"p99Ms\":%.3f,\"maxMs\":%.3f}",
+        label, uri, clients, seconds, count, errors, shed, count / seconds,
+        percentile(latencies, 0.50), percentile(latencies, 0.95), percentile(latencies, 0.99),
+        percentile(latencies, 1.0));
+    System.out.println(json);
+    Path output = Path.of("target", "loadtest-" + label + ".json");
+    Files.createDirectories(output.getParent());
+    Files.writeString(output, json + System.lineSeparator());
+  }
+
+  private static ClientResult runClient(HttpClient client, HttpRequest request, long deadline) {
+    ClientResult result = new ClientResult();
+    while (System.nanoTime() < deadline) {
+      long sent = System.nanoTime();
+      try {
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 429 || response.statusCode() == 503) {
+          result.shed++;
+          continue;
+        }
+        if (response.statusCode() >= 500) {
+          result.errors++;
+        }
+      } catch (IOException e) {
+        result.errors++;
+        continue;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+      result.add(System.nanoTime() - sent);
+    }
+    return result;
+  }
+
+  private static double percentile(long[] sorted, double percentile) {
+    if (sorted.length == 0) {
+      return 0.0;
+    }
+    int index = (int) Math.ceil(percentile * sorted.length) - 1;
+    return sorted[Math.max(index, 0)] / 1e6;
+  }
+
+  private static class ClientResult {
+    private long[] latencies = new long[1024];
+    private int size;
+    private long errors;
+    private long shed;
+
+    void add(long latency) {
+      if (size == latencies.length) {
+        latencies = Arrays.copyOf(latencies, size * 2);
+      }
+      latencies[size++] = latency;
+    }
+  }
+}
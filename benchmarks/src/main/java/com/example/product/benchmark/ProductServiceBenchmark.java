@@ -0,0 +1,93 @@
+package com.example.product.benchmark;
+
+import com.example.product.cache.InMemoryProductCache;
+import com.example.product.cache.NoOpProductCache;
+import com.example.product.cache.ProductCache;
+import com.example.product.component.ProductComponent;
+import com.example.product.dto.ProductPage;
+import com.example.product.model.Product;
+import com.example.product.service.ProductService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+  @Param({ "1000", "100000", "1000000" })
+  private int catalogSize;
+
+  @Param({ "none", "memory" })
+  private String cache;
+
+  private ProductService productService;
+  private ProductComponent productComponent;
+  private String lastPageCursor;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    List<Product> products = Catalog.products(catalogSize);
+    ProductCache productCache = "memory".equals(cache)
+        ? new InMemoryProductCache(10_000, Duration.ofMinutes(5), Clock.systemUTC())
+        : new NoOpProductCache();
+    productService = new ProductService(Catalog.repository(products), productCache,
+        Catalog.discardedChanges());
+
+    productComponent = new ProductComponent();
+    for (Product product : products.subList(3, products.size())) {
+      productComponent.addProduct(product);
+    }
+    lastPageCursor = ProductPage.encodeCursor(catalogSize - ProductService.DEFAULT_PAGE_SIZE);
+  }
+
+  private long randomId() {
+    return ThreadLocalRandom.current().nextLong(1, catalogSize + 1);
+  }
+
+  @Benchmark
+  public Optional<Product> serviceFindById() {
+    return productService.findById(randomId());
+  }
+
+  @Benchmark
+  public Optional<Product> componentFindById() {
+    return productComponent.findById(randomId());
+  }
+
+  @Benchmark
+  public ProductPage firstPage() {
+    return productService.getProductPage(null, ProductService.DEFAULT_PAGE_SIZE, null, null, null);
+  }
+
+  @Benchmark
+  public ProductPage lastPage() {
+    return productService.getProductPage(lastPageCursor, ProductService.DEFAULT_PAGE_SIZE, null, null, null);
+  }
+
+  @Benchmark
+  public List<Product> getAllProducts() {
+    return productService.getAllProducts();
+  }
+}
@@ -0,0 +1,84 @@
+package com.example.product.benchmark;
+
+import com.example.product.dto.ApiErrorResponse;
+import com.example.product.dto.ApiResponse;
+import com.example.product.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+  @Param({ "1", "20", "100", "1000" })
+  private int listSize;
+
+  private ObjectWriter writer;
+  private List<Product> products;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    // Mirrors the ObjectMapper Spring Boot builds for the web tier
+    writer = new ObjectMapper()
+        .findAndRegisterModules()
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .writer();
+    products = Catalog.products(listSize);
+  }
+
+  @Benchmark
+  public byte[] serializeProductList() throws Exception {
+    return writer.writeValueAsBytes(new ApiResponse<>(HttpStatus.OK, "Success", products, null));
+  }
+
+  @Benchmark
+  public byte[] serializeSingleProduct() throws Exception {
+    return writer.writeValueAsBytes(new ApiResponse<>(HttpStatus.OK, "Success", products.get(0), null));
+  }
+
+  // Not-found responses are nearly all envelope, so they show the envelope cost on its own
+  @Benchmark
+  public byte[] serializeNotFound() throws Exception {
+    return writer.writeValueAsBytes(new ApiResponse<>(HttpStatus.NOT_FOUND, "Product Not Found", null,
+        new ApiErrorResponse("not_found", "Product Not Found", "No product found with id 42", HttpStatus.NOT_FOUND)));
+  }
+
+  @Benchmark
+  public byte[] legacyProductList() throws Exception {
+    return writer.writeValueAsBytes(new LegacyApiResponse<>(HttpStatus.OK, "Success", products, null));
+  }
+
+  @Benchmark
+  public byte[] legacySingleProduct() throws Exception {
+    return writer.writeValueAsBytes(new LegacyApiResponse<>(HttpStatus.OK, "Success", products.get(0), null));
+  }
+
+  @Benchmark
+  public byte[] legacyNotFound() throws Exception {
+    return writer.writeValueAsBytes(new LegacyApiResponse<>(HttpStatus.NOT_FOUND, "Product Not Found", null,
+        new LegacyApiResponse.Error("not_found", "Product Not Found", "No product found with id 42",
+            HttpStatus.NOT_FOUND)));
+  }
+}
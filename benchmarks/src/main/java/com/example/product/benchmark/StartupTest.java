@@ -0,0 +1,84 @@
+package com.example.product.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+// Time to first request: starts the given command, polls the URL until it answers 200 and kills
+// the process, <runs> times in a row. The first run also pays for a cold page cache, so compare
+// medians. Results are printed and written as JSON.
+//
+// java -cp target/benchmarks.jar com.example.product.benchmark.StartupTest \
+//     <label> <runs> http://localhost:8080/api/products/1 -- java -jar app.jar [args...]
+public class StartupTest {
+
+  public static void main(String[] args) throws Exception {
+    int separator = Arrays.asList(args).indexOf("--");
+    if (separator < 3 || separator == args.length - 1) {
+      System.err.println("usage: StartupTest <label> <runs> <url> -- <command...>");
+      System.exit(2);
+    }
+    String label = args[0];
+    int runs = Integer.parseInt(args[1]);
+    URI uri = URI.create(args[2]);
+    List<String> command = Arrays.asList(args).subList(separator + 1, args.length);
+
+    HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+    HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(10)).GET().build();
+    long[] millis = new long[runs];
+    for (int run = 0; run < runs; run++) {
+      millis[run] = timeToFirstRequest(command, client, request);
+      System.out.printf(Locale.ROOT, "run %d: %d ms%n", run + 1, millis[run]);
+    }
+    long[] sorted = millis.clone();
+    Arrays.sort(sorted);
+
+    String json = String.format(Locale.ROOT,
+        "{\"label\":\"%s\",\"uri\":\"%s\",\"runs\":%d,\"minMs\":%d,\"medianMs\":%d,\"maxMs\":%d,\"allMs\":%s}",
+        label, uri, runs, sorted[0], sorted[runs / 2], sorted[runs - 1], Arrays.toString(millis));
+    System.out.println(json);
+    Path output = Path.of("target", "startup-" + label + ".json");
+    Files.createDirectories(output.getParent());
+    Files.writeString(output, json + System.lineSeparator());
+  }
+
+  private static long timeToFirstRequest(List<String> command, HttpClient client, HttpRequest request)
+      throws IOException, InterruptedException {
+    Path log = Files.createTempFile("startup-", ".log");
+    long start = System.nanoTime();
+    Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+    try {
+      long deadline = start + TimeUnit.MINUTES.toNanos(2);
+      while (System.nanoTime() < deadline) {
+        if (!process.isAlive()) {
+          throw new IllegalStateException("Process exited with " + process.exitValue() + ", see " + log);
+        }
+        try {
+          if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            Files.delete(log);
+            return elapsed;
+          }
+        } catch (IOException e) {
+          // Not listening yet
+        }
+        Thread.sleep(10);
+      }
+      throw new IllegalStateException("No 200 from " + request.uri() + " within 2 minutes, see " + log);
+    } finally {
+      process.destroy();
+      if (!process.waitFor(30, TimeUnit.SECONDS)) {
+        process.destroyForcibly().waitFor();
+      }
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.example.product.benchmark;
+
+import com.example.product.cache.NoOpProductCache;
+import com.example.product.component.ProductComponent;
+import com.example.product.model.Product;
+import com.example.product.service.ProductService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// PUT throughput with several writers on the same products. hotProducts=1 is the worst case,
+// where every versioned update races every other one and losers re-read and retry.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class UpdateContentionBenchmark {
+
+  @Param({ "1", "16", "1024" })
+  private int hotProducts;
+
+  private ProductService productService;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    ProductComponent productComponent = new ProductComponent();
+    for (Product product : Catalog.products(hotProducts)) {
+      productComponent.addProduct(new Product(0, product.getName(), product.getPrice()));
+    }
+    productService = new ProductService(productComponent, new NoOpProductCache(), Catalog.discardedChanges());
+  }
+
+  private long randomId() {
+    // The component seeds three products of its own, ids 1 to 3
+    return 4 + ThreadLocalRandom.current().nextLong(hotProducts);
+  }
+
+  @Benchmark
+  public void versionedUpdate(Blackhole blackhole) {
+    long id = randomId();
+    while (true) {
+      Product current = productService.findById(id).get();
+      current.setPrice(current.getPrice() + 1);
+      try {
+        blackhole.consume(productService.updateProduct(id, current, current.getVersion()));
+        return;
+      } catch (OptimisticLockingFailureException e) {
+        blackhole.consume(e);
+      }
+    }
+  }
+
+  @Benchmark
+  public Product blindUpdate() {
+    long id = randomId();
+    Product current = productService.findById(id).get();
+    current.setPrice(current.getPrice() + 1);
+    return productService.updateProduct(id, current, null);
+  }
+}
@@ -0,0 +1,159 @@
+package com.example.product.benchmark;
+
+import com.example.product.config.WireFormatConfig;
+import com.example.product.dto.ApiResponse;
+import com.example.product.dto.ProductProtobufHttpMessageConverter;
+import com.example.product.model.Product;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Encodes one page of the list endpoint with the converter the app negotiates for each format.
+// "encode" is the server's cost per response, "encodeGzip" adds Tomcat's compression on top.
+// Run main() for the bytes on the wire, raw and gzipped, per format and page size.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+  private static final Type LIST_RESPONSE = new ParameterizedTypeReference<ApiResponse<List<Product>>>() {}.getType();
+
+  @Param({ "json", "smile", "cbor", "protobuf" })
+  private String format;
+
+  @Param({ "20", "100" })
+  private int listSize;
+
+  private GenericHttpMessageConverter<Object> converter;
+  private MediaType mediaType;
+  private ApiResponse<List<Product>> page;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    converter = converter(format);
+    mediaType = converter.getSupportedMediaTypes().get(0);
+    page = page(listSize);
+  }
+
+  @Benchmark
+  public int encode() throws IOException {
+    Output output = new Output(new ByteArrayOutputStream(8192));
+    converter.write(page, LIST_RESPONSE, mediaType, output);
+    return output.bytes.size();
+  }
+
+  @Benchmark
+  public int encodeGzip() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+      converter.write(page, LIST_RESPONSE, mediaType, new Output(gzip));
+    }
+    return bytes.size();
+  }
+
+  public static void main(String[] args) throws IOException {
+    System.out.printf(Locale.ROOT, "%-9s %6s %9s %9s%n", "format", "items", "bytes", "gzipped");
+    for (int size : new int[] { 1, 20, 100, 1000 }) {
+      ApiResponse<List<Product>> page = page(size);
+      for (String format : new String[] { "json", "smile", "cbor", "protobuf" }) {
+        GenericHttpMessageConverter<Object> converter = converter(format);
+        MediaType mediaType = converter.getSupportedMediaTypes().get(0);
+        Output raw = new Output(new ByteArrayOutputStream());
+        converter.write(page, LIST_RESPONSE, mediaType, raw);
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+          gzip.write(raw.bytes.toByteArray());
+        }
+        System.out.printf(Locale.ROOT, "%-9s %6d %9d %9d%n", format, size, raw.bytes.size(), gzipped.size());
+      }
+    }
+  }
+
+  // The app's converters, over an ObjectMapper built the way Spring Boot builds it for the web tier
+  @SuppressWarnings("unchecked")
+  private static GenericHttpMessageConverter<Object> converter(String format) {
+    WireFormatConfig wireFormats = new WireFormatConfig();
+    Object converter = switch (format) {
+      case "json" -> new MappingJackson2HttpMessageConverter(mapperBuilder().build());
+      case "smile" -> wireFormats.smileHttpMessageConverter(mapperBuilder());
+      case "cbor" -> wireFormats.cborHttpMessageConverter(mapperBuilder());
+      case "protobuf" -> new ProductProtobufHttpMessageConverter();
+      default -> throw new IllegalArgumentException("Unknown format " + format);
+    };
+    return (GenericHttpMessageConverter<Object>) converter;
+  }
+
+  private static Jackson2ObjectMapperBuilder mapperBuilder() {
+    return Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+  }
+
+  // Stored products carry timestamps and a version, which the synthetic catalog leaves out
+  private static ApiResponse<List<Product>> page(int size) {
+    List<Product> products = Catalog.products(size);
+    LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+    for (Product product : products) {
+      product.setCreatedAt(createdAt.plusSeconds(product.getId()));
+      product.setUpdatedAt(createdAt.plusMinutes(product.getId()));
+      product.setVersion(product.getId() % 7);
+    }
+    return new ApiResponse<>(HttpStatus.OK, "Success", products, null, "MTAw");
+  }
+
+  private static final class Output implements HttpOutputMessage {
+    private final HttpHeaders headers = new HttpHeaders();
+    private final OutputStream body;
+    private final ByteArrayOutputStream bytes;
+
+    private Output(ByteArrayOutputStream bytes) {
+      this.body = bytes;
+      this.bytes = bytes;
+    }
+
+    private Output(OutputStream body) {
+      this.body = body;
+      this.bytes = null;
+    }
+
+    @Override
+    public OutputStream getBody() {
+      return body;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return headers;
+    }
+  }
+}